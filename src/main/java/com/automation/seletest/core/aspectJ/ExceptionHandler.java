@@ -27,6 +27,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.aspectJ;
 
 import com.automation.seletest.core.selenium.configuration.SessionControl;
+import com.automation.seletest.core.selenium.threads.CosmeticQueue;
 import com.automation.seletest.core.selenium.threads.SessionContext;
 import com.automation.seletest.core.services.annotations.JSHandle;
 import com.automation.seletest.core.services.annotations.RetryFailure;
@@ -56,6 +57,9 @@ import org.testng.Reporter;
 @Slf4j
 public class ExceptionHandler extends SeletestPointCuts {
 
+    /**Commands that need the cosmetic commands flushed before, they may leave the current document*/
+    private static final String FLUSH_BEFORE = "takeScreenShot.*|switchTo.*|goToTargetHost|goBack|goForward|click|quit|acceptAlert|dismissAlert";
+
     /**The log service*/
     @Autowired
     LogUtils report;
@@ -186,7 +190,9 @@ public class ExceptionHandler extends SeletestPointCuts {
     }
 
     /**
-     * Around functions of web controller
+     * Around functions of web controller, pending cosmetic commands are flushed
+     * after the command, or before it for screenshots and commands that may leave the
+     * current document (window/frame switches, navigation, clicks, alerts)
      * @param pjp ProceedingJoinPoint
      * @return Objec returning value
      * @throws Throwable
@@ -194,11 +200,29 @@ public class ExceptionHandler extends SeletestPointCuts {
     @Around("webControl()")
     public Object webControl(ProceedingJoinPoint pjp) throws Throwable {
         Object returnValue;
+        String command = pjp.getSignature().getName();
         Reporter.getCurrentTestResult().removeAttribute("verification");
+        boolean before = command.matches(FLUSH_BEFORE);
+        if(before) {
+            flushCosmetics();
+        }
         returnValue = pjp.proceed();
+        if(!before && !command.equals("changeStyle")) {
+            flushCosmetics();
+        }
         return returnValue;
     }
 
+    /**
+     * Flush the cosmetic commands of the current session
+     */
+    private void flushCosmetics() {
+        CosmeticQueue cosmetics = SessionContext.getSession().getCosmetics();
+        if(cosmetics != null) {
+            cosmetics.flush();
+        }
+    }
+
     /**
      * Method for handling exceptions....
      * @param pjp ProceedingJoinPoint
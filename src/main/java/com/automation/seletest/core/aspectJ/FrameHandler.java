@@ -0,0 +1,82 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.selenium.threads.WindowManager;
+import com.automation.seletest.core.selenium.webAPI.elements.FramePath;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect that switches to the frame path of a locator before any WebDriver wait condition.
+ * Runs before the cache advice so that cached elements are returned in the right frame.
+ * String locators without frame path switch back to the top document if the frames were entered by a frame path locator,
+ * frames entered with switchToFrame are kept. Navigation clears the frames entered in the window.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FrameHandler extends SeletestPointCuts {
+
+    /**
+     * Enter the frames of locators with frame path, locators without frame path leave the frames
+     * entered by a frame path locator
+     * @param jp JoinPoint
+     */
+    @Before("webDriverWaitConditions()")
+    public void enterFrames(final JoinPoint jp) {
+        if(jp.getArgs().length>0 && FramePath.hasFrames(jp.getArgs()[0])) {
+            SessionProperties session=SessionContext.getSession();
+            if(session.getWindowManager()==null) {
+                session.setWindowManager(new WindowManager(session.getWebDriver()));
+            }
+            session.getWindowManager().enterFrames(FramePath.frames((String) jp.getArgs()[0]));
+        } else if(jp.getArgs().length>0 && jp.getArgs()[0] instanceof String && !"waitForPageTitle".equals(jp.getSignature().getName())
+                && SessionContext.getSession().getWindowManager()!=null) {
+            SessionContext.getSession().getWindowManager().leaveLocatorFrames();
+        }
+    }
+
+    /**
+     * Forget the entered frames when the page is left
+     */
+    @Before("navigation()")
+    public void leaveFrames() {
+        SessionProperties session=SessionContext.session();
+        if(session.getWindowManager()!=null) {
+            session.getWindowManager().navigated();
+        }
+    }
+}
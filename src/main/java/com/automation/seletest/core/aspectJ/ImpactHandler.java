@@ -0,0 +1,90 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import com.automation.seletest.core.services.impact.ImpactIndex;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * Aspect that records the page objects and locators used by each test into the impact index.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Aspect
+@Component
+public class ImpactHandler extends SeletestPointCuts {
+
+    @Autowired
+    Environment env;
+
+    /**
+     * Page object method of the current test
+     * @param pjp ProceedingJoinPoint
+     * @return value from ProceedingJoinPoint
+     * @throws Throwable
+     */
+    @Around("logPOs()")
+    public Object recordPageObject(ProceedingJoinPoint pjp) throws Throwable {
+        if (!env.getProperty("impact.record", Boolean.class, false)) {
+            return pjp.proceed();
+        }
+        ImpactIndex.enter(currentTest(), pjp.getSignature().getDeclaringType());
+        try {
+            return pjp.proceed();
+        } finally {
+            ImpactIndex.exit();
+        }
+    }
+
+    /**
+     * Locator used by the current page object
+     * @param joinPoint JoinPoint
+     */
+    @Before("webControl()")
+    public void recordLocator(JoinPoint joinPoint) {
+        if (joinPoint.getArgs().length > 0 && joinPoint.getArgs()[0] instanceof String) {
+            ImpactIndex.locator(currentTest(), (String) joinPoint.getArgs()[0]);
+        }
+    }
+
+    /**
+     * @return String class#method of the running test, null outside a test method
+     */
+    private String currentTest() {
+        ITestResult result = Reporter.getCurrentTestResult();
+        return result != null && result.getMethod().isTest() ? result.getMethod().getRealClass().getName() + "#" + result.getMethod().getMethodName() : null;
+    }
+}
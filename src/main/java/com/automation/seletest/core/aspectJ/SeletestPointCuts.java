@@ -66,10 +66,20 @@ public abstract class SeletestPointCuts {
     @Pointcut("execution(!boolean com.automation.seletest.core.selenium.webAPI.WebController.*(..))")
     protected void webControl() {}
 
+    /**Methods that navigate away from the current page*/
+    @Pointcut("execution(* com.automation.seletest.core.selenium.webAPI.WebController.goToTargetHost(..)) || "
+            + "execution(* com.automation.seletest.core.selenium.webAPI.WebController.goBack(..)) || "
+            + "execution(* com.automation.seletest.core.selenium.webAPI.WebController.goForward(..))")
+    protected void navigation() {}
+
     /**Methods for wait conditions*/
     @Pointcut("execution(* com.automation.seletest.core.services.webSync.*WaitStrategy.*(..))")
     protected void waitConditions() {}
 
+    /**Methods for wait conditions of WebDriver*/
+    @Pointcut("execution(* com.automation.seletest.core.services.webSync.WebDriverWaitStrategy.*(..))")
+    protected void webDriverWaitConditions() {}
+
     /**Methods that are returning objects*/
     @Pointcut("execution(* com.automation.seletest.core.selenium.webAPI.*.get*(..))")
     protected void getReturningValue() {}
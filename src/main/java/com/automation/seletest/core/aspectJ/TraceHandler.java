@@ -0,0 +1,59 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import com.automation.seletest.core.services.trace.CommandTracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect that marks page object methods as steps of the command trace.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Aspect
+@Component
+public class TraceHandler extends SeletestPointCuts {
+
+    /**
+     * Page object method as current step of the trace
+     * @param pjp ProceedingJoinPoint
+     * @return value from ProceedingJoinPoint
+     * @throws Throwable
+     */
+    @Around("logPOs()")
+    public Object traceStep(ProceedingJoinPoint pjp) throws Throwable {
+        CommandTracer.enterStep(pjp.getSignature().getDeclaringType().getSimpleName()+"."+pjp.getSignature().getName());
+        try {
+            return pjp.proceed();
+        } finally {
+            CommandTracer.exitStep();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.services.performance.WebVitalsCollector;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect that collects the web vitals of a page before navigating away from it with goToTargetHost, goBack or goForward.
+ * Pages left by other actions (e.g. a click on a link) are not collected here, only the page open when the test ends
+ * is collected as well; collecting on every action would cost one script per action.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Aspect
+@Component
+public class WebVitalsHandler extends SeletestPointCuts {
+
+    /**
+     * Collect web vitals of the current page
+     */
+    @Before("navigation()")
+    public void collectVitals() {
+        WebVitalsCollector vitals = SessionContext.getSession().getVitals();
+        if(vitals != null) {
+            vitals.collect();
+        }
+    }
+}
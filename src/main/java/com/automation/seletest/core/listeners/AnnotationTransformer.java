@@ -44,7 +44,9 @@ import org.testng.annotations.ITestAnnotation;
 
 import com.automation.seletest.core.services.annotations.DataSource;
 import com.automation.seletest.core.services.annotations.DataSource.Data;
+import com.automation.seletest.core.services.impact.ImpactSelector;
 import com.automation.seletest.core.testNG.DataSources;
+import com.automation.seletest.core.testNG.SmartRetry;
 
 /**
  * Test AnnotationTransformer
@@ -54,6 +56,9 @@ import com.automation.seletest.core.testNG.DataSources;
 @Slf4j
 public class AnnotationTransformer implements IAnnotationTransformer2{
 
+    /**Attribute of failed results that the RetryAnalyzer handed to a new attempt*/
+    public static final String RETRIED_ATTEMPT = "retriedAttempt";
+
     /**The name of the DataProvider used to load properties for data driven testing*/
     private static final String dataPropertiesSource="GenericDataProvider";
 
@@ -77,6 +82,12 @@ public class AnnotationTransformer implements IAnnotationTransformer2{
             }
         }
 
+        //Disable tests not affected by the changes since impact.base
+        if (testMethod != null && !ImpactSelector.isSelected(testClass, testMethod)) {
+            log.debug("Test {} not affected by the changes, disabled", testMethod.getName());
+            test.setEnabled(false);
+        }
+
         //Set retry analyzer class for all @Test methods
         IRetryAnalyzer retry = test.getRetryAnalyzer();
         if (retry==null){
@@ -151,11 +162,16 @@ public class AnnotationTransformer implements IAnnotationTransformer2{
         @Override
         public boolean retry(ITestResult result) {
 
+            if (result.getAttribute(SmartRetry.RETRIED) != null) {
+                log.debug("{} already retried in place on a healthy session", result.getName());
+                return false;
+            }
             if ((!result.isSuccess() &&
                     (!(result.getThrowable() instanceof TimeoutException || result.getThrowable() instanceof AssertionError)))) {
                 if (count < maxCount) {
                     count++;
                     log.info("{} - Error in {} with status {}. Retrying {} times",Thread.currentThread().getName(),result.getName(),result.getStatus(),count);
+                    result.setAttribute(RETRIED_ATTEMPT, count);
                     return true;
                 }
 
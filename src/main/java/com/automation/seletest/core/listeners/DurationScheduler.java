@@ -0,0 +1,346 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.listeners;
+
+import com.automation.seletest.core.services.data.Shard;
+import com.automation.seletest.core.testNG.ResultHistory;
+import com.automation.seletest.core.testNG.ShardResults;
+import com.automation.seletest.core.testNG.WorkerClient;
+import com.automation.seletest.core.testNG.WorkerCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders the methods of a test longest-first by the durations of previous runs, so the slow tests start
+ * first and the threads of the pool finish together (longest processing time first packing).
+ * With parallel="methods" each method is placed on its own, with parallel="classes" whole classes are
+ * ordered by their total duration. Methods with an explicit priority keep the declared order.
+ * Durations are kept as a moving average per class#method in scheduler.history (./target/test-durations.properties),
+ * merged once per suite.
+ * Recently failed and flaky methods are then reordered by their {@link ResultHistory}.
+ * <p>In a worker JVM of the {@link WorkerCoordinator} only the methods assigned to the worker are kept and
+ * results are reported to the coordinator.</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class DurationScheduler implements IMethodInterceptor, ITestListener, ISuiteListener {
+
+    /**Weight of the last run in the moving average*/
+    private static final double WEIGHT = 0.5;
+
+    /**Durations of this run per class#method and test, data driven invocations summed*/
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicLong>> measured = new ConcurrentHashMap<>();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (WorkerClient.isWorker()) {
+            methods = claim(methods, context);
+        }
+        for (IMethodInstance method : methods) {
+            if (method.getMethod().getPriority() != 0) {
+                log.debug("Methods with priority in {}, declared order kept", context.getName());
+                return methods;
+            }
+        }
+        boolean byClass = XmlSuite.PARALLEL_CLASSES.equals(context.getCurrentXmlTest().getParallel());
+        return ResultHistory.order(longestFirst(methods, context, byClass), byClass);
+    }
+
+    /**
+     * Orders methods (or classes) longest first by their historical durations
+     */
+    private List<IMethodInstance> longestFirst(List<IMethodInstance> methods, ITestContext context, boolean byClass) {
+        final Map<String, Long> history = history();
+        if (history.isEmpty()) {
+            return methods;
+        }
+        final long unknown = median(history);
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        if (byClass) {
+            final Map<Class<?>, Long> classes = new HashMap<>();
+            for (IMethodInstance method : methods) {
+                Class<?> type = method.getMethod().getRealClass();
+                Long total = classes.get(type);
+                classes.put(type, (total == null ? 0 : total) + duration(method.getMethod(), history, unknown));
+            }
+            Collections.sort(ordered, new Comparator<IMethodInstance>() {
+                @Override
+                public int compare(IMethodInstance a, IMethodInstance b) {
+                    int byClass = Long.compare(classes.get(b.getMethod().getRealClass()), classes.get(a.getMethod().getRealClass()));
+                    return byClass != 0 ? byClass : a.getMethod().getRealClass().getName().compareTo(b.getMethod().getRealClass().getName());
+                }
+            });
+        } else {
+            Collections.sort(ordered, new Comparator<IMethodInstance>() {
+                @Override
+                public int compare(IMethodInstance a, IMethodInstance b) {
+                    return Long.compare(duration(b.getMethod(), history, unknown), duration(a.getMethod(), history, unknown));
+                }
+            });
+        }
+        int threads = Math.max(1, context.getCurrentXmlTest().getThreadCount());
+        log.info("Test {} scheduled longest first on {} threads, expected {}ms instead of {}ms", context.getName(), threads,
+                makespan(ordered, threads, history, unknown), makespan(methods, threads, history, unknown));
+        return ordered;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        measure(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        measure(result);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        measure(result);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        if (WorkerClient.isWorker()) {
+            WorkerClient.report("SKIP", key(result.getMethod()) + "@" + occurrence(result), 0, result.getTestContext().getName());
+        }
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        // nothing to do
+    }
+
+    @Override
+    public void onStart(ITestContext context) {
+        // nothing to do
+    }
+
+    /**
+     * Workers write the results of the test to be merged by the coordinator
+     */
+    @Override
+    public void onFinish(ITestContext context) {
+        if (WorkerClient.isWorker()) {
+            try {
+                ShardResults.write(context, new Shard(WorkerClient.index(), WorkerClient.count(), Shard.Mode.INDEX, 0), new File(WorkerCoordinator.DIRECTORY));
+            } catch (IOException e) {
+                log.error("Cannot write worker results: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        // nothing to do
+    }
+
+    /**
+     * Merges the durations of the suite into the history once, a method run by several tests counts with
+     * its average duration. Workers send their durations to the coordinator instead
+     */
+    @Override
+    public void onFinish(ISuite suite) {
+        if (WorkerClient.isWorker()) {
+            return;
+        }
+        Map<String, Long> durations = new HashMap<>();
+        for (Map.Entry<String, ConcurrentHashMap<String, AtomicLong>> entry : measured.entrySet()) {
+            long total = 0;
+            for (AtomicLong duration : entry.getValue().values()) {
+                total += duration.get();
+            }
+            durations.put(entry.getKey(), total / Math.max(1, entry.getValue().size()));
+        }
+        measured.clear();
+        record(durations);
+    }
+
+    /**
+     * Merges durations into the history
+     * @param durations Map of ms per class#method
+     */
+    public static synchronized void record(Map<String, Long> durations) {
+        Map<String, Long> history = history();
+        for (Map.Entry<String, Long> entry : durations.entrySet()) {
+            Long previous = history.get(entry.getKey());
+            long current = entry.getValue();
+            history.put(entry.getKey(), previous == null ? current : Math.round(WEIGHT * current + (1 - WEIGHT) * previous));
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<String, Long> entry : history.entrySet()) {
+            properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        File file = historyFile();
+        if (file.getAbsoluteFile().getParentFile() != null) {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+        }
+        try (Writer writer = new FileWriter(file)) {
+            properties.store(writer, "Test durations in ms, moving average per class#method");
+        } catch (IOException e) {
+            log.warn("Test durations not saved to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps the methods of a test that the coordinator assigns to this worker
+     */
+    private List<IMethodInstance> claim(List<IMethodInstance> methods, ITestContext context) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        Map<String, IMethodInstance> byKey = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            String key = key(method.getMethod());
+            Integer occurrence = occurrences.get(key);
+            occurrences.put(key, occurrence == null ? 1 : occurrence + 1);
+            byKey.put(key + "@" + (occurrence == null ? 0 : occurrence), method);
+        }
+        List<IMethodInstance> owned = new ArrayList<>();
+        for (String key : WorkerClient.claim(context.getName(), new ArrayList<>(byKey.keySet()))) {
+            if (byKey.containsKey(key)) {
+                owned.add(byKey.get(key));
+            }
+        }
+        log.info("Worker {} runs {} of {} methods of {}", WorkerClient.index(), owned.size(), methods.size(), context.getName());
+        return owned;
+    }
+
+    private void measure(ITestResult result) {
+        String key = key(result.getMethod());
+        long duration = result.getEndMillis() - result.getStartMillis();
+        if (WorkerClient.isWorker()) {
+            WorkerClient.report(result.isSuccess() ? "PASS" : "FAIL", key + "@" + occurrence(result), duration, result.getTestContext().getName());
+            return;
+        }
+        measured.putIfAbsent(key, new ConcurrentHashMap<String, AtomicLong>());
+        ConcurrentHashMap<String, AtomicLong> tests = measured.get(key);
+        tests.putIfAbsent(result.getTestContext().getName(), new AtomicLong());
+        tests.get(result.getTestContext().getName()).addAndGet(duration);
+    }
+
+    /**
+     * Occurrence of the test instance among the instances of its class (factories), 0 for a single instance
+     */
+    private static int occurrence(ITestResult result) {
+        Object[] instances = result.getTestClass().getInstances(false);
+        for (int i = 0; instances != null && i < instances.length; i++) {
+            if (instances[i] == result.getInstance()) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static long duration(ITestNGMethod method, Map<String, Long> history, long unknown) {
+        Long duration = history.get(key(method));
+        return duration != null ? duration : unknown;
+    }
+
+    /**
+     * Wall clock time of the order when every method goes to the first free thread
+     */
+    private static long makespan(List<IMethodInstance> methods, int threads, Map<String, Long> history, long unknown) {
+        PriorityQueue<Long> free = new PriorityQueue<>();
+        for (int i = 0; i < threads; i++) {
+            free.add(0L);
+        }
+        long end = 0;
+        for (IMethodInstance method : methods) {
+            long finish = free.poll() + duration(method.getMethod(), history, unknown);
+            end = Math.max(end, finish);
+            free.add(finish);
+        }
+        return end;
+    }
+
+    /**
+     * Duration assumed for methods without history
+     * @param history Map of durations, not empty
+     * @return long median duration
+     */
+    public static long median(Map<String, Long> history) {
+        List<Long> durations = new ArrayList<>(history.values());
+        Collections.sort(durations);
+        return durations.get(durations.size() / 2);
+    }
+
+    private static String key(ITestNGMethod method) {
+        return method.getRealClass().getName() + "#" + method.getMethodName();
+    }
+
+    private static File historyFile() {
+        return new File(System.getProperty("scheduler.history", "./target/test-durations.properties"));
+    }
+
+    /**
+     * Durations of previous runs
+     * @return Map of ms per class#method
+     */
+    public static Map<String, Long> history() {
+        Map<String, Long> history = new LinkedHashMap<>();
+        File file = historyFile();
+        if (!file.isFile()) {
+            return history;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(file)) {
+            properties.load(reader);
+            for (String key : properties.stringPropertyNames()) {
+                history.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Test durations not read from {}: {}", file, e.getMessage());
+        }
+        return history;
+    }
+}
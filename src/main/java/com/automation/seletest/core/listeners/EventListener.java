@@ -32,7 +32,16 @@ import com.automation.seletest.core.listeners.beanUtils.Events.TestNGEvent;
 import com.automation.seletest.core.selenium.configuration.SessionControl;
 import com.automation.seletest.core.selenium.mobileAPI.AppiumController;
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.selenium.threads.WindowManager;
+import com.automation.seletest.core.services.annotations.SeleniumTest;
 import com.automation.seletest.core.services.annotations.SeleniumTest.DriverType;
+import com.automation.seletest.core.services.performance.AssetCache;
+import com.automation.seletest.core.services.performance.FixtureServer;
+import com.automation.seletest.core.services.performance.ProxyPool;
+import com.automation.seletest.core.services.performance.ProxyRules;
+import com.automation.seletest.core.services.performance.WebVitalsCollector;
+import com.automation.seletest.core.services.trace.CommandTracer;
 import com.automation.seletest.core.services.utilities.PerformanceUtils;
 import com.automation.seletest.core.spring.ApplicationContextProvider;
 import com.automation.seletest.core.testNG.assertions.Assert;
@@ -42,6 +51,7 @@ import io.appium.java_client.TouchAction;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
 import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.remote.CapabilityType;
@@ -51,13 +61,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Configurable;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.Reporter;
 
+import java.io.IOException;
 import java.sql.Time;
 import java.util.ArrayList;
-import java.util.Random;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -66,11 +79,17 @@ import java.util.concurrent.TimeUnit;
  * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
  *
  */
-@SuppressWarnings({"deprecation","unchecked"})
+@SuppressWarnings({"deprecation","unchecked","rawtypes"})
 @Component
 @Slf4j
 public class EventListener implements ApplicationListener<ApplicationEvent> {
 
+    @Autowired
+    FixtureServer fixtureServer;
+
+    @Autowired
+    AssetCache assetCache;
+
     @Override
     public void onApplicationEvent(ApplicationEvent event) {
         Time sessionTime=new Time(event.getTimestamp());
@@ -87,6 +106,7 @@ public class EventListener implements ApplicationListener<ApplicationEvent> {
 
                 if(((TestNGEvent) event).getTest()!=null){
                     log.debug("Setting aliases for --> {}", ((TestNGEvent) event).getTest().toString());
+                    SessionContext.session().setVitals(((TestNGEvent) event).getTest().webVitals() ? new WebVitalsCollector((JavascriptExecutor) SessionContext.session().getWebDriver()) : null);
                     if(((TestNGEvent) event).getTest().driver().equals(DriverType.WEBDRIVER)) {
                         SessionContext.session().setControllerStrategy("webDriverControl");
                         SessionContext.session().setActionsStrategy("webDriverActions");
@@ -95,6 +115,13 @@ public class EventListener implements ApplicationListener<ApplicationEvent> {
                         SessionContext.session().setWaitStrategy("seleniumWait");
                         SessionContext.session().setActionsStrategy("seleniumActions");
                     }
+                    //Rules last, an invalid rule fails the @Test (SeletestWebTestBase) after the session is set up
+                    if(SessionContext.session().getPerformance()!=null) {
+                        applyProxyRules(((TestNGEvent) event).getTest().proxyRules());
+                        if(assetCache.isEnabled()) {
+                            assetCache.attach(SessionContext.session().getPerformance().getServer());
+                        }
+                    }
                 }
             }
         }
@@ -103,6 +130,22 @@ public class EventListener implements ApplicationListener<ApplicationEvent> {
         }
     }
 
+    /**
+     * Applies the proxy rules of a @Test, if they cannot be applied the proxy is left without rules
+     * and the failure is kept on the test result, so that the @Test fails before its body runs
+     * @param rules String[] proxy rules
+     */
+    private void applyProxyRules(String[] rules) {
+        try {
+            ProxyRules.apply(SessionContext.session().getPerformance().getServer(), fixtureServer, rules);
+        } catch (IOException | RuntimeException e) {
+            log.error("Proxy rules not applied: {}", e.getMessage());
+            if(Reporter.getCurrentTestResult()!=null) {
+                Reporter.getCurrentTestResult().setAttribute(ProxyRules.FAILURE, e);
+            }
+        }
+    }
+
     /**
      * Initialization class
      * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
@@ -117,15 +160,60 @@ public class EventListener implements ApplicationListener<ApplicationEvent> {
         @Autowired
         Environment env;
 
+        @Autowired
+        ProxyPool proxyPool;
+
+        @Autowired
+        AssetCache assetCache;
+
+        @Autowired
+        SessionPrestarter prestarter;
+
         /**
-         * Initialize Web or Mobile session
+         * Initialize Web or Mobile session, a web session started ahead by the {@link SessionPrestarter} is used if available
          * @param event Application event
          * @throws Exception
          */
         public void initializeSession(ApplicationEvent event) throws Exception{
-            WebDriver driver;
-            Selenium selenium;
             ITestContext textcontext=((InitializationEvent) event).getTestcontext();
+            SessionProperties launched=prestarter.take(textcontext);
+            if(launched==null) {
+                launched=launch((InitializationEvent) event);
+            }
+            if(launched!=null) {
+                SessionContext.session().setWebDriver(launched.getWebDriver());
+                SessionContext.session().setWindowManager(launched.getWindowManager());
+                SessionContext.session().setTracer(launched.getTracer());
+                SessionContext.session().setSelenium(launched.getSelenium());
+                if(launched.getPerformance()!=null) {
+                    SessionContext.session().setPerformance(launched.getPerformance());
+                }
+            } else {
+                String appPath = textcontext.getCurrentXmlTest().getParameter(env.getProperty("app_path"));
+                String appPackage = textcontext.getCurrentXmlTest().getParameter(env.getProperty("app_package"));
+                String autoLaunch=textcontext.getCurrentXmlTest().getParameter(env.getProperty("auto_lauch"));
+                SessionContext.session().setTouchAction(new TouchAction((AppiumDriver) SessionContext.session().getWebDriver()));
+                mobileControl.installApp(appPath,appPackage);
+                if(!Boolean.parseBoolean(textcontext.getCurrentXmlTest().getParameter(autoLaunch))){
+                    mobileControl.launchApp();
+                }
+            }
+            SessionContext.setSessionProperties();
+
+        }
+
+        /**
+         * Starts the driver of a session. Web sessions are returned with the host loaded and may be started
+         * by any thread, mobile sessions are set to the session of the current thread
+         * @param event InitializationEvent
+         * @return SessionProperties of a web session, null for a mobile session
+         * @throws Exception
+         */
+        public SessionProperties launch(InitializationEvent event) throws Exception{
+            WebDriver driver=null;
+            Selenium selenium;
+            ITestContext textcontext=event.getTestcontext();
+            SessionProperties launched=new SessionProperties();
 
             String gridHost=textcontext.getCurrentXmlTest().getParameter(env.getProperty("grid_host"));
             String gridPort=textcontext.getCurrentXmlTest().getParameter(env.getProperty("grid_port"));
@@ -147,42 +235,81 @@ public class EventListener implements ApplicationListener<ApplicationEvent> {
                 cap.merge(ioscap);
             }
 
-            /**Performance with browser-mob proxy for local environment*/
-            if(((InitializationEvent) event).isPerformance() && !profileDriver.contains("Grid")){
-                PerformanceUtils performance = ApplicationContextProvider.getApplicationContext().getBean(PerformanceUtils.class);
-                int proxyPort=new Random().nextInt(5000);
-                performance.proxyServer(proxyPort);
-                performance.newHar("Har created at: "+ new Time(event.getTimestamp()));
-                cap.setCapability(CapabilityType.PROXY, performance.proxy(proxyPort));
-                SessionContext.session().setPerformance(performance);
+            /**Performance with browser-mob proxy for local environment, without HAR capture if only proxy rules are needed*/
+            boolean performanceMode=event.isPerformance();
+            if((performanceMode || assetCache.isEnabled() || declaresProxyRules(textcontext)) && !profileDriver.contains("Grid")){
+                PerformanceUtils performance = proxyPool.lease(performanceMode ? "Har created at: "+ new Time(event.getTimestamp()) : null);
+                if(assetCache.isEnabled()) {
+                    assetCache.attach(performance.getServer());
+                }
+                cap.setCapability(CapabilityType.PROXY, performance.getProxy());
+                launched.setPerformance(performance);
             }
 
-            if(profileDriver.contains("Grid")) {
-                driver=(WebDriver) ApplicationContextProvider.getApplicationContext().getBean(profileDriver, gridHost+":"+gridPort+"/wd/hub",cap);
-            } else {
-                driver=(WebDriver) ApplicationContextProvider.getApplicationContext().getBean(profileDriver, cap);
+            try {
+                if(profileDriver.contains("Grid")) {
+                    driver=(WebDriver) ApplicationContextProvider.getApplicationContext().getBean(profileDriver, gridHost+":"+gridPort+"/wd/hub",cap);
+                } else {
+                    driver=(WebDriver) ApplicationContextProvider.getApplicationContext().getBean(profileDriver, cap);
+                }
+
+                if(driver instanceof RemoteWebDriver && !(driver instanceof AppiumDriver)) {
+                    driver.manage().timeouts().setScriptTimeout(30, TimeUnit.SECONDS);
+                    launched.setWebDriver((RemoteWebDriver)driver);
+                    launched.setWindowManager(new WindowManager(driver));
+                    if(env.getProperty("trace.commands", Boolean.class, false)) {
+                        launched.setTracer(CommandTracer.install((RemoteWebDriver)driver));
+                    }
+                    selenium=(Selenium)ApplicationContextProvider.getApplicationContext().getBean("selenium", driver,event.getHostUrl());
+                    launched.setSelenium(selenium);
+                    driver.get(event.getHostUrl());
+                    return launched;
+                }
+            } catch (RuntimeException e) {
+                discard(driver, launched);
+                throw e;
+            }
+            if(launched.getPerformance()!=null) {
+                SessionContext.session().setPerformance(launched.getPerformance());
+            }
+            if(driver instanceof AndroidDriver) {
+                SessionContext.session().setWebDriver((AndroidDriver)driver);
+            } else if(driver instanceof IOSDriver){
+                SessionContext.session().setWebDriver((IOSDriver)driver);
             }
+            return null;
+        }
 
-            if(driver instanceof RemoteWebDriver && !(driver instanceof AppiumDriver)) {
-                driver.manage().timeouts().setScriptTimeout(30, TimeUnit.SECONDS);
-                SessionContext.session().setWebDriver((RemoteWebDriver)driver);
-                selenium=(Selenium)ApplicationContextProvider.getApplicationContext().getBean("selenium", driver,((InitializationEvent) event).getHostUrl());
-                SessionContext.session().setSelenium(selenium);
-                driver.get(((InitializationEvent) event).getHostUrl());
-            } else {
-                if(driver instanceof AndroidDriver) {
-                    SessionContext.session().setWebDriver((AndroidDriver)driver);
-                } else if(driver instanceof IOSDriver){
-                    SessionContext.session().setWebDriver((IOSDriver)driver);
+        /**
+         * Quits the driver and releases the proxy of a launch that failed
+         */
+        private void discard(WebDriver driver, SessionProperties launched) {
+            try {
+                if(driver!=null) {
+                    driver.quit();
                 }
-                SessionContext.session().setTouchAction(new TouchAction((AppiumDriver) driver));
-                mobileControl.installApp(appPath,appPackage);
-                if(!Boolean.parseBoolean(textcontext.getCurrentXmlTest().getParameter(autoLaunch))){
-                    mobileControl.launchApp();
+            } catch (RuntimeException e) {
+                log.warn("Cannot quit driver of failed launch: {}", e.getMessage());
+            } finally {
+                if(launched.getPerformance()!=null) {
+                    proxyPool.release(launched.getPerformance());
                 }
             }
-            SessionContext.setSessionProperties();
+        }
 
+        /**
+         * Checks if any @Test of the context declares proxy rules
+         * @param context ITestContext
+         * @return true if a proxy is needed for the rules
+         */
+        private boolean declaresProxyRules(ITestContext context) {
+            for(ITestNGMethod method : context.getAllTestMethods()) {
+                SeleniumTest test=AnnotationUtils.findAnnotation(method.getConstructorOrMethod().getMethod(), SeleniumTest.class);
+                if(test!=null && test.proxyRules().length>0) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
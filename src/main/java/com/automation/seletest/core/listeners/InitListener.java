@@ -29,10 +29,14 @@ package com.automation.seletest.core.listeners;
 
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -46,6 +50,10 @@ import org.testng.SkipException;
 import com.automation.seletest.core.selenium.configuration.SessionControl;
 import com.automation.seletest.core.selenium.threads.SessionContext;
 import com.automation.seletest.core.services.annotations.SeleniumTest;
+import com.automation.seletest.core.services.performance.WebVitalsCollector;
+import com.automation.seletest.core.services.performance.WebVitalsRecorder;
+import com.automation.seletest.core.services.trace.CommandTracer;
+import com.automation.seletest.core.services.trace.TraceFile;
 import com.automation.seletest.core.services.utilities.PerformanceUtils;
 import com.automation.seletest.core.spring.ApplicationContextProvider;
 import com.automation.seletest.core.testNG.PostConfiguration;
@@ -56,6 +64,9 @@ import com.automation.seletest.core.testNG.assertions.SoftAssert;
 @SuppressWarnings("unchecked")
 public class InitListener implements IInvokedMethodListener{
 
+	/**Sequence making trace file names unique*/
+	private static final AtomicInteger TRACES=new AtomicInteger();
+
 	@Override
 	public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
 		PreConfiguration preconfigure = null;
@@ -117,13 +128,29 @@ public class InitListener implements IInvokedMethodListener{
 
 			postconfigure = method.getTestMethod().getConstructorOrMethod().getMethod().getAnnotation(PostConfiguration.class);
 			PerformanceUtils perf=SessionContext.session().getPerformance();
+			WebVitalsCollector vitals=SessionContext.session().getVitals();
+			if(vitals!=null) {
+				vitals.collect();
+				List<String> regressions=ApplicationContextProvider.getApplicationContext().getBean(WebVitalsRecorder.class).record(testResult.getName(), vitals.drain());
+				if(!regressions.isEmpty() && testResult.isSuccess()) {
+					testResult.setStatus(ITestResult.FAILURE);
+					testResult.setThrowable(new AssertionError("Web vitals regressions: "+regressions));
+				}
+			}
 			SessionControl.verifyController().assertAll();
-			if(perf!=null) {
-				perf.getPerformanceData(perf.getServer());
-				perf.writePerformanceData(new File("./target/surefire-reports/logs/"+testResult.getName()+".har").getAbsolutePath(), perf.getHar());
-				perf.stopServer(perf.getServer());
+			if(perf!=null && perf.isCapturing()) {
+				perf.collectPerformanceData(new File("./target/surefire-reports/logs/"+testResult.getName()).getAbsolutePath());
+				perf.newHar("Har created for: "+testResult.getName());
 				log.debug("Performance data collected for test method: {} !!!",method.getTestMethod().getMethodName());
 			}
+			CommandTracer tracer=SessionContext.session().getTracer();
+			if(tracer!=null) {
+				try {
+					TraceFile.write(new File("./target/surefire-reports/traces/"+traceName(testResult)+".trace"), tracer.drain());
+				} catch (IOException e) {
+					log.error("Cannot write command trace for test method {}: {}", method.getTestMethod().getMethodName(), e.getMessage());
+				}
+			}
 		}
 
 		//Execute Method from Page Object or Page Facade prior to @Test execution
@@ -133,6 +160,20 @@ public class InitListener implements IInvokedMethodListener{
 		}
 	}
 
+	/**
+	 * Unique name of the trace of a test result: class, method, invocation, parameters and start time
+	 * @param testResult ITestResult
+	 * @return String file name without extension
+	 */
+	private static String traceName(ITestResult testResult) {
+		String name=testResult.getMethod().getRealClass().getSimpleName()+"."+testResult.getMethod().getMethodName()
+				+"-"+testResult.getMethod().getCurrentInvocationCount();
+		if(testResult.getParameters()!=null && testResult.getParameters().length>0) {
+			name+="-"+Integer.toHexString(Arrays.deepHashCode(testResult.getParameters()));
+		}
+		return name+"-"+testResult.getStartMillis()+"-"+TRACES.incrementAndGet();
+	}
+
 	/**
 	 * Execute PreConfiguration
 	 * @param configure Object for custom annotation PreConfigure-PostConfigure
@@ -0,0 +1,281 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.listeners;
+
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import com.automation.seletest.core.listeners.EventListener.Initialize;
+import com.automation.seletest.core.listeners.beanUtils.Events.InitializationEvent;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.services.performance.ProxyPool;
+
+/**
+ * Starts web sessions ahead of the tests, so browser start and initial navigation overlap with the setup of the suite
+ * and the running tests. Per &lt;test&gt; as many sessions as the thread count are launched (one for parallel false/tests).
+ * Sessions in use and sessions launched ahead never exceed the thread count: each session a test releases launches
+ * the next one, until the test has had a session for every class or method.
+ * Sessions that are not taken are closed at the end of the suite, mobile sessions are always started by the test.
+ * <p>Sessions of a &lt;test&gt; are launched from its ITestContext, which TestNG only passes to configuration methods of
+ * that test: the first &lt;test&gt; is prestarted from @BeforeSuite, the others from their @BeforeTest. For parallel=false
+ * or tests the session of those tests is taken right away, so only their sessions per class or method (and the first
+ * &lt;test&gt;) overlap with setup, while parallel="tests" runs the &lt;test&gt;s and their launches side by side anyway.</p>
+ * <p>Settings: session.prestart (true/false)</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+@SuppressWarnings("rawtypes")
+public class SessionPrestarter {
+
+    @Autowired
+    Environment env;
+
+    @Autowired
+    ProxyPool proxyPool;
+
+    /**Sessions launched per suite/test*/
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**Threads launching the sessions*/
+    private ExecutorService launcher;
+
+    /**
+     * Starts launching the sessions of a test, once per test
+     * @param event InitializationEvent the sessions of the test are initialized with
+     */
+    public void prestart(InitializationEvent event) {
+        ITestContext ctx = event.getTestcontext();
+        String profile = ctx.getCurrentXmlTest().getParameter(env.getProperty("profile_Web"));
+        if (!env.getProperty("session.prestart", Boolean.class, false) || profile == null || profile.contains("android") || profile.contains("iOS")) {
+            return;
+        }
+        String parallel = ctx.getCurrentXmlTest().getParallel();
+        int sessions = sessions(ctx, parallel);
+        int ahead = "methods".equals(parallel) || "classes".equals(parallel) ? Math.min(sessions, Math.max(1, ctx.getCurrentXmlTest().getThreadCount())) : Math.min(sessions, 1);
+        Lane lane = new Lane(event, sessions, ahead);
+        if (lanes.putIfAbsent(key(ctx), lane) != null) {
+            return;
+        }
+        for (int i = 0; i < ahead; i++) {
+            launchNext(lane);
+        }
+        log.info("{} of {} sessions of {} launched ahead", ahead, sessions, ctx.getName());
+    }
+
+    /**
+     * Takes a session launched for the test, waiting for its launch. The session counts as in use until released,
+     * also when none was launched and the test starts its own
+     * @param ctx ITestContext
+     * @return SessionProperties with the driver and the host loaded, null if none was launched or the launch failed
+     */
+    public SessionProperties take(ITestContext ctx) {
+        Lane lane = lanes.get(key(ctx));
+        if (lane == null) {
+            return null;
+        }
+        Future<SessionProperties> next;
+        synchronized (lane) {
+            lane.inUse++;
+            next = lane.pending.poll();
+        }
+        if (next == null) {
+            return null;
+        }
+        try {
+            return next.get();
+        } catch (ExecutionException e) {
+            log.warn("Session launched ahead failed, starting a new one: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Releases a session of the test that was cleaned and launches the next one
+     * @param ctx ITestContext
+     */
+    public void released(ITestContext ctx) {
+        Lane lane = lanes.get(key(ctx));
+        if (lane == null) {
+            return;
+        }
+        synchronized (lane) {
+            lane.inUse = Math.max(0, lane.inUse - 1);
+            if (lane.inUse + lane.pending.size() < lane.ahead) {
+                launchNext(lane);
+            }
+        }
+    }
+
+    /**
+     * Closes the sessions that were launched but not taken
+     */
+    public void discard() {
+        for (Lane lane : lanes.values()) {
+            Future<SessionProperties> pending;
+            while ((pending = lane.pending.poll()) != null) {
+                try {
+                    close(pending.get());
+                } catch (ExecutionException e) {
+                    log.debug("Session launched ahead failed: {}", e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        lanes.clear();
+    }
+
+    /**
+     * Closes the sessions not taken and stops the launcher threads
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        discard();
+        if (launcher != null) {
+            launcher.shutdownNow();
+        }
+    }
+
+    private void close(SessionProperties session) {
+        try {
+            if (session.getWebDriver() != null) {
+                session.getWebDriver().quit();
+            }
+        } catch (Exception e) {
+            log.warn("Cannot quit session launched ahead: {}", e.getMessage());
+        } finally {
+            if (session.getPerformance() != null) {
+                proxyPool.release(session.getPerformance());
+            }
+        }
+        log.debug("Session launched ahead and not used closed");
+    }
+
+    private void launchNext(final Lane lane) {
+        if (lane.launched.incrementAndGet() > lane.sessions) {
+            return;
+        }
+        lane.pending.add(launcher().submit(new Callable<SessionProperties>() {
+            @Override
+            public SessionProperties call() throws Exception {
+                return new Initialize().launch(lane.event);
+            }
+        }));
+    }
+
+    private synchronized ExecutorService launcher() {
+        if (launcher == null) {
+            launcher = Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "SeletestSessionLauncher-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return launcher;
+    }
+
+    /**
+     * Sessions the test initializes: one per method (parallel=methods), per class (parallel=classes) or one
+     */
+    private static int sessions(ITestContext ctx, String parallel) {
+        if ("methods".equals(parallel)) {
+            int invocations = 0;
+            for (ITestNGMethod method : ctx.getAllTestMethods()) {
+                invocations += Math.max(1, method.getInvocationCount());
+            }
+            return invocations;
+        } else if ("classes".equals(parallel)) {
+            Set<Class<?>> classes = new HashSet<>();
+            for (ITestNGMethod method : ctx.getAllTestMethods()) {
+                classes.add(method.getRealClass());
+            }
+            return classes.size();
+        }
+        return 1;
+    }
+
+    private static String key(ITestContext ctx) {
+        return ctx.getSuite().getName() + "/" + ctx.getName();
+    }
+
+    /**
+     * Sessions launched for a test
+     */
+    private static class Lane {
+
+        private final InitializationEvent event;
+
+        private final int sessions;
+
+        /**Sessions in use and launched ahead at most*/
+        private final int ahead;
+
+        /**Sessions taken and not released, guarded by the lane*/
+        private int inUse;
+
+        private final AtomicInteger launched = new AtomicInteger();
+
+        private final Queue<Future<SessionProperties>> pending = new ConcurrentLinkedQueue<>();
+
+        Lane(InitializationEvent event, int sessions, int ahead) {
+            this.event = event;
+            this.sessions = sessions;
+            this.ahead = ahead;
+        }
+    }
+}
@@ -28,12 +28,18 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.listeners;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.openqa.selenium.logging.LogEntries;
 import org.openqa.selenium.logging.LogEntry;
 import org.openqa.selenium.logging.LogType;
+import org.testng.IResultMap;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestNGMethod;
@@ -41,10 +47,14 @@ import org.testng.ITestResult;
 import org.testng.Reporter;
 
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.services.data.Shard;
 import com.automation.seletest.core.services.factories.StrategyFactory;
+import com.automation.seletest.core.services.impact.ImpactIndex;
 import com.automation.seletest.core.services.utilities.FilesUtils;
 import com.automation.seletest.core.services.utilities.MailUtils;
 import com.automation.seletest.core.spring.ApplicationContextProvider;
+import com.automation.seletest.core.testNG.ResultHistory;
+import com.automation.seletest.core.testNG.ShardResults;
 
 /**
  * Test Listener class.
@@ -52,7 +62,7 @@ import com.automation.seletest.core.spring.ApplicationContextProvider;
  *
  */
 @Slf4j
-public class TestListener implements ITestListener{
+public class TestListener implements ITestListener, ISuiteListener{
 
 	/** Screenshots directory*/
 	private static final String screenShots="/html/screenshots";
@@ -81,31 +91,83 @@ public class TestListener implements ITestListener{
 		for(ITestNGMethod m:context.getSkippedConfigurations().getAllMethods()){
 			context.getSkippedConfigurations().removeResult(m);
 		}
-		//remove the rerun tests result from report
-		for(int i=0;i<context.getAllTestMethods().length;i++){
-			if(context.getAllTestMethods()[i].getCurrentInvocationCount()==3){
-				if (context.getFailedTests().getResults(context.getAllTestMethods()[i]).size() == 2 || context.getPassedTests().getResults(context.getAllTestMethods()[i]).size() == 1){
-					if(context.getAllTestMethods()[i].getParameterInvocationCount()==1){
-						context.getFailedTests().removeResult(context.getAllTestMethods()[i]);
-					}
+		//Keep only the last attempt of retried tests in the report
+		removeRetriedResults(context);
+
+		//Write the results of the shard to be merged with the other shards
+		Shard shard=Shard.fromParameters(context.getCurrentXmlTest().getAllParameters());
+		if(shard.isActive()) {
+			try {
+				log.info("Results of {} written to {}", shard, ShardResults.write(context, shard, new File(ShardResults.DIRECTORY)));
+			} catch (IOException e) {
+				log.error("Cannot write shard results: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Removes the results of attempts that the RetryAnalyzer handed to a new attempt
+	 * @param context ITestContext
+	 */
+	private void removeRetriedResults(ITestContext context) {
+		List<ITestResult> retried = new ArrayList<>();
+		for (IResultMap results : new IResultMap[]{context.getPassedTests(), context.getFailedTests(), context.getSkippedTests()}) {
+			for (ITestResult result : results.getAllResults()) {
+				if (result.getAttribute(AnnotationTransformer.RETRIED_ATTEMPT) != null) {
+					retried.add(result);
 				}
 			}
 		}
+		for (ITestResult result : retried) {
+			context.getPassedTests().removeResult(result);
+			context.getFailedTests().removeResult(result);
+			context.getSkippedTests().removeResult(result);
+		}
+		if (!retried.isEmpty()) {
+			log.debug("{} results of retried attempts removed from the report", retried.size());
+		}
+	}
+
+	@Override
+	public void onStart(ISuite suite) {
+	}
+
+	/**
+	 * Saves the test outcomes and the impact index once per suite, after all its tests
+	 */
+	@Override
+	public void onFinish(ISuite suite) {
+		//Save the outcomes of the tests for failure first ordering of the next runs
+		try {
+			ResultHistory.save();
+		} catch (IOException e) {
+			log.error("Cannot save test outcomes: {}", e.getMessage());
+		}
+
+		//Save the page objects used by the tests for test impact analysis
+		try {
+			ImpactIndex.save();
+		} catch (IOException e) {
+			log.error("Cannot save impact index: {}", e.getMessage());
+		}
 	}
 
 	@Override
 	public void onTestSuccess(ITestResult testResult) {
 		log.debug("Test "+ testResult.getName()+" passed!!!");
+		ResultHistory.record(testResult);
 	}
 
 	@Override
 	public void onTestSkipped(ITestResult testResult) {
 		log.debug("Test "+ testResult.getName()+" skipped!!!");
+		ResultHistory.record(testResult);
 	}
 
 	@Override
 	public void onTestFailure(ITestResult testResult) {
 		log.debug("Test "+ testResult.getName()+" failed!!!");
+		ResultHistory.record(testResult);
 		try {
 			log.debug("Collect client logs after failure of the @Test {}", testResult.getMethod());
 			LogEntries entries=ApplicationContextProvider.getApplicationContext().getBean(StrategyFactory.class).getControllerStrategy(SessionContext.getSession().getControllerStrategy()).logs(LogType.BROWSER);
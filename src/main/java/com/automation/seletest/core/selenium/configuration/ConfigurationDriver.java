@@ -26,6 +26,12 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package com.automation.seletest.core.selenium.configuration;
 
+import com.automation.seletest.core.spring.MonitoredTaskExecutor;
+import com.automation.seletest.core.spring.config.AppContextConfig;
+import com.automation.seletest.core.spring.config.CacheContextConfig;
+import com.automation.seletest.core.spring.config.JmxContextConfig;
+import com.automation.seletest.core.spring.config.MailContextConfig;
+import com.automation.seletest.core.spring.config.ThreadPoolContextConfig;
 import com.opera.core.systems.OperaDriver;
 import com.thoughtworks.selenium.Selenium;
 import com.thoughtworks.selenium.webdriven.WebDriverBackedSelenium;
@@ -52,7 +58,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.EnableMBeanExport;
-import org.springframework.context.annotation.ImportResource;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
@@ -77,12 +83,7 @@ import java.util.Properties;
 @Configuration
 @EnableMBeanExport(defaultDomain = "seletest.mbeans")
 @PropertySources({@PropertySource({"BrowserSettings/browser.properties","core.properties"})})
-@ImportResource({
-        "classpath*:META-INF/spring/app-context.xml",
-        "classpath*:META-INF/spring/mail-context.xml",
-        "classpath*:META-INF/spring/thread-pool-context.xml",
-        "classpath*:META-INF/spring/cache-context.xml",
-        "classpath*:META-INF/spring/jmx-context.xml"})
+@Import({AppContextConfig.class, MailContextConfig.class, ThreadPoolContextConfig.class, CacheContextConfig.class, JmxContextConfig.class})
 @EnableAspectJAutoProxy(proxyTargetClass=true)
 @Slf4j
 public class ConfigurationDriver {
@@ -162,16 +163,17 @@ public class ConfigurationDriver {
     }
 
     /**
-     * The defaultTaskExecutor for thread management
+     * The defaultTaskExecutor for thread management, sized by the executor.* properties
      * @return ThreadPoolTaskExecutor the default thread pool task executor
      */
     @Bean(name="SeletestTaskExecutor")
     public ThreadPoolTaskExecutor defaultTaskExecutor() {
-        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        MonitoredTaskExecutor taskExecutor = new MonitoredTaskExecutor(env.getProperty("executor.policy", MonitoredTaskExecutor.CALLER_RUNS),
+                env.getProperty("executor.block.seconds", Long.class, 30L));
         taskExecutor.setThreadNamePrefix("Seletest Thread Pool - ");
-        taskExecutor.setCorePoolSize(10);
-        taskExecutor.setQueueCapacity(10);
-        taskExecutor.setMaxPoolSize(20);
+        taskExecutor.setCorePoolSize(env.getProperty("executor.core", Integer.class, 10));
+        taskExecutor.setQueueCapacity(env.getProperty("executor.queue", Integer.class, 10));
+        taskExecutor.setMaxPoolSize(env.getProperty("executor.max", Integer.class, 20));
         return taskExecutor;
     }
 
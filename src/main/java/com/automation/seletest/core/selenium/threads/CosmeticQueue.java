@@ -0,0 +1,171 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.selenium.threads;
+
+import com.automation.seletest.core.selenium.webAPI.elements.FramePath;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per session queue for cosmetic commands (highlighting, style changes). Style changes are
+ * coalesced per element and attribute and flushed with a single script after the next real command,
+ * or before it when the command may leave the current document.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class CosmeticQueue {
+
+    /**
+     * Mode for cosmetic commands: executed immediately, queued or dropped (e.g. headless CI)
+     */
+    public enum Mode{SYNC,QUEUED,OFF}
+
+    /**Script that resolves the queued elements in the browser and applies their styles*/
+    private static final String FLUSH_SCRIPT =
+            "var s=arguments[0];" +
+            "for(var i=0;i<s.length;i++){" +
+            " var c=s[i], e=null;" +
+            " try{" +
+            "  if(c[0]=='element'){e=c[1];}" +
+            "  else if(c[0]=='css'){e=document.querySelector(c[1]);}" +
+            "  else if(c[0]=='xpath'){e=document.evaluate(c[1],document,null,9,null).singleNodeValue;}" +
+            "  else if(c[0]=='id'){e=document.getElementById(c[1]);}" +
+            "  else if(c[0]=='name'){e=document.getElementsByName(c[1])[0];}" +
+            "  if(e){e.style[c[2]]=c[3];}" +
+            " }catch(err){}" +
+            "}";
+
+    /**The executor of the session*/
+    private final JavascriptExecutor executor;
+
+    /**The mode of the queue*/
+    @Getter
+    private final Mode mode;
+
+    /**Pending style changes keyed by element and attribute*/
+    private final Map<String, Object[]> pending = new LinkedHashMap<>();
+
+    public CosmeticQueue(JavascriptExecutor executor, Mode mode) {
+        this.executor = executor;
+        this.mode = mode;
+    }
+
+    /**
+     * Queue a style change
+     * @param locator Object String locator or WebElement
+     * @param attribute String style attribute
+     * @param value String style value
+     * @return false if the locator cannot be resolved inside the browser, the caller should offer the WebElement instead
+     */
+    public synchronized boolean offer(Object locator, String attribute, String value) {
+        Object[] command = command(locator, attribute, value);
+        if (command == null) {
+            return false;
+        }
+        pending.put(command[0] + "|" + command[1] + "|" + attribute, command);
+        return true;
+    }
+
+    /**
+     * Apply all pending style changes with one script, failures are ignored
+     */
+    public void flush() {
+        List<Object> commands;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            commands = new ArrayList<Object>(pending.size());
+            for (Object[] command : pending.values()) {
+                List<Object> args = new ArrayList<>(4);
+                for (Object arg : command) {
+                    args.add(arg);
+                }
+                commands.add(args);
+            }
+            pending.clear();
+        }
+        try {
+            executor.executeScript(FLUSH_SCRIPT, commands);
+        } catch (WebDriverException ex) {
+            if (commands.size() == 1) {
+                log.debug("Cosmetic command dropped: {}", ex.getMessage());
+                return;
+            }
+            //A stale element fails the whole script, apply the commands one by one
+            for (Object command : commands) {
+                try {
+                    executor.executeScript(FLUSH_SCRIPT, Collections.singletonList(command));
+                } catch (WebDriverException e) {
+                    log.debug("Cosmetic command dropped: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all pending style changes
+     */
+    public synchronized void clear() {
+        pending.clear();
+    }
+
+    /**
+     * Builds the command for the flush script
+     * @return Object[] command or null if locator is not resolvable by the script
+     */
+    private Object[] command(Object locator, String attribute, String value) {
+        if (locator instanceof WebElement) {
+            return new Object[]{"element", locator, attribute, value};
+        } else if (!(locator instanceof String) || FramePath.hasFrames(locator)) {
+            return null;
+        }
+        String selector = (String) locator;
+        if (selector.startsWith("css=")) {
+            return new Object[]{"css", selector.substring(4), attribute, value};
+        } else if (selector.startsWith("xpath=")) {
+            return new Object[]{"xpath", selector.substring(6), attribute, value};
+        } else if (selector.startsWith("//")) {
+            return new Object[]{"xpath", selector, attribute, value};
+        } else if (selector.startsWith("id=")) {
+            return new Object[]{"id", selector.substring(3), attribute, value};
+        } else if (selector.startsWith("name=")) {
+            return new Object[]{"name", selector.substring(5), attribute, value};
+        }
+        return null;
+    }
+}
@@ -51,12 +51,37 @@ public class SessionContext {
 	/**Constant for session*/
 	private final static String session="session";
 
+	/**Session of the test thread that submitted the task running in this thread*/
+	private final static ThreadLocal<SessionProperties> propagated = new ThreadLocal<>();
+
 	/**
 	 * Get the thread in parallel execution from a target Source
 	 * @return SessionProperties instance
 	 */
 	public static SessionProperties session(){
-		return (SessionProperties) innerContext(ThreadLocalTargetSource.class).getTarget();
+		SessionProperties session = propagated.get();
+		return session != null ? session : (SessionProperties) innerContext(ThreadLocalTargetSource.class).getTarget();
+	}
+
+	/**
+	 * Wraps a task so that it runs with the session of the calling thread. The task thread never creates
+	 * a session of its own and keeps no reference to the session when the task ends
+	 * @param task Runnable
+	 * @return Runnable with the session of the caller
+	 */
+	public static Runnable withSession(final Runnable task){
+		final SessionProperties session = session();
+		return new Runnable() {
+			@Override
+			public void run() {
+				propagated.set(session);
+				try {
+					task.run();
+				} finally {
+					propagated.remove();
+				}
+			}
+		};
 	}
 
 	/**
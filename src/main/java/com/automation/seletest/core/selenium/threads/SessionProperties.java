@@ -31,7 +31,11 @@ package com.automation.seletest.core.selenium.threads;
 
 import com.automation.seletest.core.selenium.configuration.SessionControl;
 import com.automation.seletest.core.selenium.webAPI.WebController.CloseSession;
+import com.automation.seletest.core.services.performance.ProxyPool;
+import com.automation.seletest.core.services.performance.WebVitalsCollector;
+import com.automation.seletest.core.services.trace.CommandTracer;
 import com.automation.seletest.core.services.utilities.PerformanceUtils;
+import com.automation.seletest.core.spring.ApplicationContextProvider;
 import com.automation.seletest.core.testNG.assertions.Assert;
 import com.thoughtworks.selenium.Selenium;
 import io.appium.java_client.TouchAction;
@@ -103,6 +107,22 @@ public class SessionProperties<T extends WebDriver> {
     @Getter @Setter
     List<WebElement> webElements;
 
+    /**Window manager of the session*/
+    @Getter @Setter
+    WindowManager windowManager;
+
+    /**Cosmetic command queue of the session*/
+    @Getter @Setter
+    CosmeticQueue cosmetics;
+
+    /**Command tracer of the session*/
+    @Getter @Setter
+    CommandTracer tracer;
+
+    /**Web vitals collector of the session*/
+    @Getter @Setter
+    WebVitalsCollector vitals;
+
     /**
      * Initialize objects per session and close session!!!
      */
@@ -113,6 +133,12 @@ public class SessionProperties<T extends WebDriver> {
             SessionControl.webController().quit(CloseSession.QUIT);
         }
 
+        //Returns the proxy to the shared pool
+        if(performance!=null){
+            ApplicationContextProvider.getApplicationContext().getBean(ProxyPool.class).release(performance);
+            performance=null;
+        }
+
         log.info("Session {} closed!!!", webDriver.toString().replace("(null)", ""));
     }
 }
@@ -0,0 +1,341 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.selenium.threads;
+
+import com.automation.seletest.core.selenium.webAPI.elements.Locators;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Window manager per session. Tracks window handles incrementally in the order
+ * they were discovered, keeps a context per handle and the history of switches,
+ * so that switching back and forth does not enumerate the handles again.
+ * Url and title of a window are read on demand with {@link #describeCurrent()}, not on every switch.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class WindowManager {
+
+    /**Script reading url and title of the current window*/
+    private static final String DESCRIBE_SCRIPT = "return [document.URL, document.title];";
+
+    /**The driver of the session*/
+    private final WebDriver driver;
+
+    /**Known windows in order of discovery*/
+    private final Map<String, WindowContext> windows = new LinkedHashMap<>();
+
+    /**Previously focused windows, latest first*/
+    private final Deque<String> history = new ArrayDeque<>();
+
+    /**The handle of the focused window*/
+    @Getter
+    private String currentHandle;
+
+    public WindowManager(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Register the window the session started with
+     */
+    private void init() {
+        if (currentHandle == null) {
+            currentHandle = driver.getWindowHandle();
+            windows.put(currentHandle, new WindowContext(currentHandle));
+        }
+    }
+
+    /**
+     * Enumerates the window handles once, appends new windows and forgets closed ones
+     * @return int the number of opened windows
+     */
+    public synchronized int refresh() {
+        init();
+        Set<String> handles = driver.getWindowHandles();
+        windows.keySet().retainAll(handles);
+        history.retainAll(handles);
+        for (String handle : handles) {
+            if (!windows.containsKey(handle)) {
+                windows.put(handle, new WindowContext(handle));
+                log.debug("New window discovered with handle {}", handle);
+            }
+        }
+        return windows.size();
+    }
+
+    /**
+     * Switch to the most recently discovered window
+     * @return String the handle of the window
+     */
+    public synchronized String switchToLatest() {
+        refresh();
+        String latest = null;
+        for (String handle : windows.keySet()) {
+            latest = handle;
+        }
+        switchTo(latest);
+        return latest;
+    }
+
+    /**
+     * Switch to a window, no command is sent if the window is already focused
+     * @param handle String window handle
+     */
+    public synchronized void switchTo(String handle) {
+        init();
+        if (handle.equals(currentHandle)) {
+            return;
+        }
+        focus(handle, true);
+    }
+
+    /**
+     * Switch back to the previously focused window, the window left becomes the previous one
+     * @return String the handle of the window
+     */
+    public synchronized String switchBack() {
+        init();
+        while (!history.isEmpty()) {
+            String previous = history.pop();
+            if (windows.containsKey(previous)) {
+                focus(previous, true);
+                return previous;
+            }
+        }
+        throw new NoSuchWindowException("There is no previous window to switch to");
+    }
+
+    /**
+     * Close the focused window and focus the previous one, or the first remaining window if there is no history
+     */
+    public synchronized void closeCurrent() {
+        init();
+        driver.close();
+        windows.remove(currentHandle);
+        history.remove(currentHandle);
+        while (!history.isEmpty()) {
+            String previous = history.pop();
+            if (windows.containsKey(previous)) {
+                focus(previous, false);
+                return;
+            }
+        }
+        if (!windows.isEmpty()) {
+            focus(windows.keySet().iterator().next(), false);
+        } else {
+            currentHandle = null;
+        }
+    }
+
+    /**
+     * Switch to a window, the top document of the window is focused
+     * @param handle String window handle
+     * @param remember boolean push the window left to the history
+     */
+    private void focus(String handle, boolean remember) {
+        driver.switchTo().window(handle);
+        history.remove(handle);
+        if (remember) {
+            history.push(currentHandle);
+        }
+        currentHandle = handle;
+        if (!windows.containsKey(handle)) {
+            windows.put(handle, new WindowContext(handle));
+        }
+        windows.get(handle).getFramePath().clear();
+        windows.get(handle).setLocatorFrames(false);
+    }
+
+    /**
+     * Switch to the given frame path with the minimum switchTo commands. The frames already
+     * entered are kept, extra frames are left with parentFrame or with a single defaultContent
+     * whichever needs fewer commands. The frame path is tracked locally without asking the browser;
+     * if a kept frame is gone (the page was left outside of the manager) the path is entered again from the top document.
+     * @param target List<String> frame selectors, outermost first
+     */
+    public synchronized void enterFrames(List<String> target) {
+        WindowContext context = current();
+        List<String> path = context.getFramePath();
+        int common = 0;
+        while (common < path.size() && common < target.size() && path.get(common).equals(target.get(common))) {
+            common++;
+        }
+        int pops = path.size() - common;
+        if (pops > 0) {
+            if (pops < 1 + common) {
+                for (int i = 0; i < pops; i++) {
+                    driver.switchTo().parentFrame();
+                }
+                path.subList(common, path.size()).clear();
+            } else {
+                driver.switchTo().defaultContent();
+                path.clear();
+                common = 0;
+            }
+        }
+        try {
+            for (int i = common; i < target.size(); i++) {
+                switchToFrame(target.get(i));
+                path.add(target.get(i));
+            }
+        } catch (WebDriverException e) {
+            if (common == 0) {
+                throw e;
+            }
+            log.debug("Frames {} left by the browser, switching from the top document", path);
+            driver.switchTo().defaultContent();
+            path.clear();
+            for (String frame : target) {
+                switchToFrame(frame);
+                path.add(frame);
+            }
+        }
+        context.setLocatorFrames(true);
+    }
+
+    /**
+     * Switch to the top document if the frames were entered by a frame path locator, so that
+     * locators without frame path find elements of the top document. Frames entered with switchToFrame are kept
+     */
+    public synchronized void leaveLocatorFrames() {
+        if (current().isLocatorFrames()) {
+            defaultContent();
+        }
+    }
+
+    /**
+     * Record a frame entered outside of a frame path locator
+     * @param frame String frame name or id
+     */
+    public synchronized void enteredFrame(String frame) {
+        current().getFramePath().add(frame);
+        current().setLocatorFrames(false);
+    }
+
+    /**
+     * Forget the frames entered in the focused window, the browser focuses the top document after navigation
+     */
+    public synchronized void navigated() {
+        current().getFramePath().clear();
+        current().setLocatorFrames(false);
+    }
+
+    /**
+     * Switch to the top document, no command is sent if no frame is entered
+     */
+    public synchronized void defaultContent() {
+        List<String> path = current().getFramePath();
+        if (!path.isEmpty()) {
+            driver.switchTo().defaultContent();
+            path.clear();
+        }
+        current().setLocatorFrames(false);
+    }
+
+    /**
+     * Switch to a single frame, #id and id=/name= selectors need one command
+     * @param selector String frame selector
+     */
+    private void switchToFrame(String selector) {
+        if (selector.matches("#[\\w-]+")) {
+            driver.switchTo().frame(selector.substring(1));
+            return;
+        }
+        Locators locator = Locators.findByLocator(selector);
+        if (locator == Locators.ID || locator == Locators.NAME) {
+            driver.switchTo().frame(selector.substring(selector.indexOf('=') + 1));
+        } else {
+            By by = locator != null ? locator.setLocator(selector) : By.cssSelector(selector);
+            driver.switchTo().frame(driver.findElement(by));
+        }
+        log.debug("Switched to frame {}", selector);
+    }
+
+    /**
+     * Number of windows known without enumerating the handles
+     * @return int known windows
+     */
+    public synchronized int knownWindows() {
+        init();
+        return windows.size();
+    }
+
+    /**
+     * Handles of the known windows in order of discovery
+     * @return List<String> handles
+     */
+    public synchronized List<String> handles() {
+        init();
+        return new ArrayList<>(windows.keySet());
+    }
+
+    /**
+     * The context of the focused window
+     * @return WindowContext
+     */
+    public synchronized WindowContext current() {
+        init();
+        return windows.get(currentHandle);
+    }
+
+    /**
+     * The context stored for a window
+     * @param handle String window handle
+     * @return WindowContext or null for unknown window
+     */
+    public synchronized WindowContext context(String handle) {
+        return windows.get(handle);
+    }
+
+    /**
+     * Reads url and title of the focused window in one script and stores them in its context
+     * @return WindowContext of the focused window
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized WindowContext describeCurrent() {
+        WindowContext context = current();
+        List<Object> info = (List<Object>) ((JavascriptExecutor) driver).executeScript(DESCRIBE_SCRIPT);
+        context.setUrl(String.valueOf(info.get(0)));
+        context.setTitle(String.valueOf(info.get(1)));
+        return context;
+    }
+}
@@ -26,7 +26,10 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package com.automation.seletest.core.selenium.webAPI;
 
+import com.automation.seletest.core.selenium.threads.CosmeticQueue;
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.selenium.threads.WindowManager;
 import com.automation.seletest.core.services.factories.StrategyFactory;
 import com.automation.seletest.core.services.utilities.LogUtils;
 import com.automation.seletest.core.services.webSync.WaitFor;
@@ -35,6 +38,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -57,6 +61,9 @@ public abstract class DriverBaseController implements WebController{
     @Autowired
     LogUtils logUtils;
 
+    @Autowired
+    Environment env;
+
     /**
      * Gets the WebDriver instance
      * @return WebDriver instance
@@ -73,6 +80,31 @@ public abstract class DriverBaseController implements WebController{
         return (T) SessionContext.getSession().getSelenium();
     }
 
+    /**
+     * Gets the window manager of the session
+     * @return WindowManager instance
+     */
+    protected WindowManager windowManager(){
+        SessionProperties session=SessionContext.getSession();
+        if(session.getWindowManager()==null) {
+            session.setWindowManager(new WindowManager(webDriver()));
+        }
+        return session.getWindowManager();
+    }
+
+    /**
+     * Gets the cosmetic command queue of the session
+     * @return CosmeticQueue instance
+     */
+    protected CosmeticQueue cosmetics(){
+        SessionProperties session=SessionContext.getSession();
+        if(session.getCosmetics()==null) {
+            CosmeticQueue.Mode mode=CosmeticQueue.Mode.valueOf(env.getProperty("cosmetic.mode", "sync").toUpperCase());
+            session.setCosmetics(new CosmeticQueue(webDriver(), mode));
+        }
+        return session.getCosmetics();
+    }
+
     /**
      * WaitFor Controller for web driver
      * @return WaitFor
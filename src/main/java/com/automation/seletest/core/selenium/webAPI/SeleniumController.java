@@ -27,6 +27,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.selenium.webAPI;
 
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.webAPI.elements.SelectOptions;
 import com.automation.seletest.core.services.annotations.JSHandle;
 import com.automation.seletest.core.services.annotations.Monitor;
 import com.automation.seletest.core.services.annotations.RetryFailure;
@@ -121,7 +122,18 @@ public class SeleniumController<T extends String> extends DriverBaseController{
      */
     @Override
     public SeleniumController changeStyle(Object locator, String attribute, String attributevalue) {
-        selenium().highlight(waitController().waitForElementPresence(setLocator(locator)));
+        switch (cosmetics().getMode()) {
+            case OFF:
+                break;
+            case QUEUED:
+                //Queued cosmetics set the style attribute, they do not call Selenium highlight
+                if(cosmetics().offer(setLocator(locator), attribute, attributevalue)) {
+                    break;
+                }
+                // falls through
+            default:
+                selenium().highlight(waitController().waitForElementPresence(setLocator(locator)));
+        }
         return this;
     }
 
@@ -450,6 +462,24 @@ public class SeleniumController<T extends String> extends DriverBaseController{
         return this;
     }
 
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#switchToWindow(java.lang.String)
+     */
+    @Override
+    @RetryFailure(retryCount=3)
+    public SeleniumController switchToWindow(String handle) {
+        selenium().selectWindow(handle);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#switchToPreviousWindow()
+     */
+    @Override
+    public SeleniumController switchToPreviousWindow() {
+        throw new RuntimeException(String.format("Method %s not implemented yet",new Object(){}.getClass().getEnclosingMethod().getName()));
+    }
+
     /* (non-Javadoc)
      * @see com.automation.seletest.core.selenium.webAPI.interfaces.WindowsController#getNumberOfOpenedWindows()
      */
@@ -513,6 +543,16 @@ public class SeleniumController<T extends String> extends DriverBaseController{
         return this;
     }
 
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#switchToDefaultContent()
+     */
+    @Override
+    @RetryFailure(retryCount=3)
+    public SeleniumController switchToDefaultContent() {
+        selenium().selectFrame("relative=top");
+        return this;
+    }
+
     /* (non-Javadoc)
      * @see com.automation.seletest.core.selenium.webAPI.interfaces.WindowsController#goBack()
      */
@@ -596,6 +636,14 @@ public class SeleniumController<T extends String> extends DriverBaseController{
         return optionValues;
     }
 
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#getSelectOptions(java.lang.Object)
+     */
+    @Override
+    public SelectOptions getSelectOptions(Object locator) {
+        throw new RuntimeException(String.format("Method %s not implemented yet",new Object(){}.getClass().getEnclosingMethod().getName()));
+    }
+
     /* (non-Javadoc)
      * @see com.automation.seletest.core.selenium.webAPI.interfaces.MainController#clearSelectedOptionByText(java.lang.Object, java.lang.String)
      */
@@ -26,6 +26,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 package com.automation.seletest.core.selenium.webAPI;
 
+import com.automation.seletest.core.selenium.webAPI.elements.SelectOptions;
 import org.openqa.selenium.Cookie;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.Point;
@@ -325,6 +326,19 @@ public interface WebController<T>{
      */
     <T> T switchToLatestWindow();
 
+    /**
+     * Switch to window with the given handle
+     * @param handle String window handle
+     * @return WebController
+     */
+    <T> T switchToWindow(String handle);
+
+    /**
+     * Switch back to the previously focused window
+     * @return WebController
+     */
+    <T> T switchToPreviousWindow();
+
     /**
      * Gets the number of opened windows
      * @return Integer the number of opened windows
@@ -357,6 +371,12 @@ public interface WebController<T>{
      */
     <T> T switchToFrame(String frameId);
 
+    /**
+     * Switch control to the top document of the window
+     * @return WebController
+     */
+    <T> T switchToDefaultContent();
+
     /**
      *  Go backward
      * @return WebController
@@ -413,6 +433,13 @@ public interface WebController<T>{
      */
     List<String> getAllOptionsText(Object locator);
 
+    /**
+     * Gets values, texts and selected flags of all options of drop down menu
+     * @param locator
+     * @return SelectOptions immutable snapshot of the options
+     */
+    SelectOptions getSelectOptions(Object locator);
+
     /**
      * Deselect option  by text
      * @param locator
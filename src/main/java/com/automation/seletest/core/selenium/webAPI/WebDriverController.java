@@ -29,7 +29,9 @@ package com.automation.seletest.core.selenium.webAPI;
 
 import com.automation.seletest.core.selenium.threads.SessionContext;
 import com.automation.seletest.core.selenium.webAPI.elements.BySelector;
+import com.automation.seletest.core.selenium.webAPI.elements.FramePath;
 import com.automation.seletest.core.selenium.webAPI.elements.Locators;
+import com.automation.seletest.core.selenium.webAPI.elements.SelectOptions;
 import com.automation.seletest.core.services.annotations.JSHandle;
 import com.automation.seletest.core.services.annotations.Monitor;
 import com.automation.seletest.core.services.annotations.RetryFailure;
@@ -40,6 +42,7 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.Cookie;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.WebElement;
@@ -56,7 +59,6 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -75,6 +77,18 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @Autowired
     FilesUtils fileService;
 
+    /**Script that deselects the options matching value or text, returns null for single selects*/
+    private static final String DESELECT_OPTIONS_SCRIPT =
+            "var s=arguments[0], byValue=arguments[1], match=arguments[2], changed=false;" +
+            "if(!s.multiple){return null;}" +
+            "for(var i=0;i<s.options.length;i++){" +
+            " var o=s.options[i];" +
+            " var key=byValue ? o.value : o.text.replace(/\\s+/g,' ').trim();" +
+            " if(key==match && o.selected){o.selected=false; changed=true;}" +
+            "}" +
+            "if(changed){var e=document.createEvent('HTMLEvents'); e.initEvent('change',true,false); s.dispatchEvent(e);}" +
+            "return changed;";
+
     /**
      * WaitFor Controller
      * @return WaitFor
@@ -116,7 +130,17 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
 
     @Override
     public WebDriverController changeStyle(Object locator, String attribute, String attributevalue) {
-        executeJS("arguments[0].style."+attribute+"=arguments[1]",waitController().waitForElementPresence(locator),attributevalue);
+        switch (cosmetics().getMode()) {
+            case OFF:
+                break;
+            case QUEUED:
+                if(!cosmetics().offer(locator, attribute, attributevalue)) {
+                    cosmetics().offer(waitController().waitForElementPresence(locator), attribute, attributevalue);
+                }
+                break;
+            default:
+                executeJS("arguments[0].style."+attribute+"=arguments[1]",waitController().waitForElementPresence(locator),attributevalue);
+        }
         return this;
     }
 
@@ -160,7 +184,8 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
 
     @Override
     public By setLocator(final Object locator) {
-        return Locators.findByLocator((String) locator).setLocator((String) locator);
+        String elementLocator=FramePath.elementLocator((String) locator);
+        return Locators.findByLocator(elementLocator).setLocator(elementLocator);
     }
 
     /**************************************
@@ -382,12 +407,27 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @Override
     @RetryFailure(retryCount=3)
     public WebDriverController switchToLatestWindow() {
-        Iterator<String> iterator = webDriver().getWindowHandles().iterator();
-        String lastWindow = null;
-        while (iterator.hasNext()) {
-            lastWindow = iterator.next();
-        }
-        webDriver().switchTo().window(lastWindow);
+        windowManager().switchToLatest();
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#switchToWindow(java.lang.String)
+     */
+    @Override
+    @RetryFailure(retryCount=3)
+    public WebDriverController switchToWindow(String handle) {
+        windowManager().switchTo(handle);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#switchToPreviousWindow()
+     */
+    @Override
+    @RetryFailure(retryCount=3)
+    public WebDriverController switchToPreviousWindow() {
+        windowManager().switchBack();
         return this;
     }
 
@@ -409,7 +449,7 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @Override
     @RetryFailure(retryCount=3)
     public int getNumberOfOpenedWindows() {
-        return webDriver().getWindowHandles().size();
+        return windowManager().refresh();
     }
 
     @Override
@@ -420,7 +460,7 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
             webDriver().quit();
             break;
         case CLOSE:
-            webDriver().close();
+            windowManager().closeCurrent();
             break;
         default:
             webDriver().quit();
@@ -436,6 +476,14 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @RetryFailure(retryCount=3)
     public WebDriverController switchToFrame(String frameId) {
         webDriver().switchTo().frame(frameId);
+        windowManager().enteredFrame(frameId);
+        return this;
+    }
+
+    @Override
+    @RetryFailure(retryCount=3)
+    public WebDriverController switchToDefaultContent() {
+        windowManager().defaultContent();
         return this;
     }
 
@@ -496,7 +544,11 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @RetryFailure(retryCount=3)
     @JSHandle
     public String getFirstSelectedOptionText(Object locator) {
-        return new Select(waitController().waitForElementPresence(locator)).getFirstSelectedOption().getText();
+        String text=getSelectOptions(locator).getFirstSelectedText();
+        if(text==null) {
+            throw new NoSuchElementException("No options are selected");
+        }
+        return text;
     }
 
     /* (non-Javadoc)
@@ -506,12 +558,17 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @RetryFailure(retryCount=3)
     @JSHandle
     public List<String> getAllOptionsText(Object locator) {
-        List<String> optionValues = new ArrayList<>();
-        List<WebElement> list=new Select(waitController().waitForElementPresence(locator)).getOptions();
-        for (WebElement element:list) {
-            optionValues.add(element.getText());
-        }
-        return optionValues;
+        return new ArrayList<>(getSelectOptions(locator).getTexts());
+    }
+
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#getSelectOptions(java.lang.Object)
+     */
+    @Override
+    @RetryFailure(retryCount=3)
+    @JSHandle
+    public SelectOptions getSelectOptions(Object locator) {
+        return SelectOptions.fromScriptResult(executeJS(SelectOptions.READ_OPTIONS_SCRIPT, waitController().waitForElementPresence(locator)));
     }
 
     /* (non-Javadoc)
@@ -521,7 +578,7 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @RetryFailure(retryCount=3)
     @JSHandle
     public WebDriverController clearSelectedOptionByText(Object locator, String text) {
-        new Select(waitController().waitForElementPresence(locator)).deselectByVisibleText(text);
+        deselectOptions(locator, false, text);
         return this;
     }
 
@@ -532,10 +589,22 @@ public class WebDriverController<T extends WebElement> extends DriverBaseControl
     @RetryFailure(retryCount=3)
     @JSHandle
     public WebDriverController clearSelectedOption(Object locator,String value) {
-        new Select(waitController().waitForElementPresence(locator)).deselectByValue(value);
+        deselectOptions(locator, true, value);
         return this;
     }
 
+    /**
+     * Deselect the matching options of a multi select with one script execution
+     * @param locator Object locator
+     * @param byValue true to match the value attribute, false to match the visible text
+     * @param match String value or text to match
+     */
+    private void deselectOptions(Object locator, boolean byValue, String match) {
+        if(executeJS(DESELECT_OPTIONS_SCRIPT, waitController().waitForElementPresence(locator), byValue, match)==null) {
+            throw new UnsupportedOperationException("You may only deselect options of a multi-select");
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.automation.seletest.core.selenium.webAPI.interfaces.MainController#isFieldEditable(java.lang.Object)
      */
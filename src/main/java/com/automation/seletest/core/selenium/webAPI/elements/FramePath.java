@@ -0,0 +1,92 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.selenium.webAPI.elements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parser for locators that carry a frame path, e.g. frame=#payment>>frame=name=card>>css=input.number
+ * Every segment before the last one locates a frame (an #id, a locator with prefix or a css selector),
+ * the last segment is the locator of the element inside the innermost frame.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public final class FramePath {
+
+    /**Prefix of a frame segment*/
+    public static final String FRAME_PREFIX = "frame=";
+
+    /**Separator of the segments*/
+    public static final String SEPARATOR = ">>";
+
+    private FramePath() {
+    }
+
+    /**
+     * If the locator carries a frame path
+     * @param locator Object locator
+     * @return true if the locator is a String starting with a frame segment
+     */
+    public static boolean hasFrames(Object locator) {
+        return locator instanceof String && ((String) locator).startsWith(FRAME_PREFIX) && ((String) locator).contains(SEPARATOR);
+    }
+
+    /**
+     * The frames of the locator, outermost first
+     * @param locator String locator
+     * @return List<String> with the frame selectors, empty if no frame path
+     */
+    public static List<String> frames(String locator) {
+        if (!hasFrames(locator)) {
+            return Collections.emptyList();
+        }
+        String[] segments = locator.split(SEPARATOR);
+        List<String> frames = new ArrayList<>(segments.length - 1);
+        for (int i = 0; i < segments.length - 1; i++) {
+            String segment = segments[i].trim();
+            if (!segment.startsWith(FRAME_PREFIX)) {
+                throw new IllegalArgumentException("The segment: " + segment + " of locator: " + locator + " is not a frame!!!");
+            }
+            frames.add(segment.substring(FRAME_PREFIX.length()));
+        }
+        return frames;
+    }
+
+    /**
+     * The locator of the element inside the innermost frame
+     * @param locator String locator
+     * @return String the element locator
+     */
+    public static String elementLocator(String locator) {
+        if (!hasFrames(locator)) {
+            return locator;
+        }
+        return locator.substring(locator.lastIndexOf(SEPARATOR) + SEPARATOR.length()).trim();
+    }
+}
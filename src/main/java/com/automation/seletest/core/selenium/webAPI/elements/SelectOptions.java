@@ -0,0 +1,145 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.selenium.webAPI.elements;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the options of a drop down menu,
+ * read from the browser with a single script execution
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public final class SelectOptions {
+
+    /**Script that collects value, text and selected flag of every option of a select element*/
+    public static final String READ_OPTIONS_SCRIPT =
+            "var s=arguments[0], r=[];" +
+            "for(var i=0;i<s.options.length;i++){" +
+            " var o=s.options[i];" +
+            " r.push([o.value, o.text.replace(/\\s+/g,' ').trim(), o.selected]);" +
+            "}" +
+            "return {multiple: s.multiple, options: r};";
+
+    /**If the select element accepts multiple selections*/
+    @Getter
+    private final boolean multiple;
+
+    /**The values of the options*/
+    @Getter
+    private final List<String> values;
+
+    /**The visible texts of the options*/
+    @Getter
+    private final List<String> texts;
+
+    /**The selected flags of the options*/
+    @Getter
+    private final List<Boolean> selected;
+
+    private SelectOptions(boolean multiple, List<String> values, List<String> texts, List<Boolean> selected) {
+        this.multiple = multiple;
+        this.values = Collections.unmodifiableList(values);
+        this.texts = Collections.unmodifiableList(texts);
+        this.selected = Collections.unmodifiableList(selected);
+    }
+
+    /**
+     * Creates the snapshot from the result of {@link #READ_OPTIONS_SCRIPT}
+     * @param scriptResult Object returned by the JavascriptExecutor
+     * @return SelectOptions snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public static SelectOptions fromScriptResult(Object scriptResult) {
+        Map<String, Object> result = (Map<String, Object>) scriptResult;
+        List<List<Object>> options = (List<List<Object>>) result.get("options");
+        List<String> values = new ArrayList<>(options.size());
+        List<String> texts = new ArrayList<>(options.size());
+        List<Boolean> selected = new ArrayList<>(options.size());
+        for (List<Object> option : options) {
+            values.add(String.valueOf(option.get(0)));
+            texts.add(String.valueOf(option.get(1)));
+            selected.add(Boolean.TRUE.equals(option.get(2)));
+        }
+        return new SelectOptions(Boolean.TRUE.equals(result.get("multiple")), values, texts, selected);
+    }
+
+    /**
+     * Number of options
+     * @return int number of options
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Texts of the selected options
+     * @return List<String> with the selected options's text
+     */
+    public List<String> getSelectedTexts() {
+        List<String> selectedTexts = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            if (selected.get(i)) {
+                selectedTexts.add(texts.get(i));
+            }
+        }
+        return selectedTexts;
+    }
+
+    /**
+     * Values of the selected options
+     * @return List<String> with the selected options's value
+     */
+    public List<String> getSelectedValues() {
+        List<String> selectedValues = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (selected.get(i)) {
+                selectedValues.add(values.get(i));
+            }
+        }
+        return selectedValues;
+    }
+
+    /**
+     * Text of the first selected option
+     * @return String the text or null if no option is selected
+     */
+    public String getFirstSelectedText() {
+        int index = selected.indexOf(Boolean.TRUE);
+        return index < 0 ? null : texts.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "SelectOptions" + texts + (multiple ? " (multiple)" : "");
+    }
+}
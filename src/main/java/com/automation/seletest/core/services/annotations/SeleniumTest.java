@@ -67,4 +67,17 @@ public @interface  SeleniumTest {
      */
     AssertionType assertion() default AssertionType.SOFT;
 
+    /**
+     * Collect web vitals of every page load and fail the @Test on regressions against the stored baselines
+     * @return true to enforce client performance budgets
+     */
+    boolean webVitals() default false;
+
+    /**
+     * Proxy rules for the @Test (block, stub, throttle), see ProxyRules for the syntax.
+     * A proxy is started for the session even without performance capture.
+     * @return the proxy rules
+     */
+    String[] proxyRules() default {};
+
 }
@@ -0,0 +1,179 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only view of a compiled table. The file is memory mapped and cells are decoded
+ * on access, rows can be iterated lazily.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class CompiledTable implements Iterable<String[]> {
+
+    /**The compiled file*/
+    @Getter
+    private final File file;
+
+    /**Number of rows*/
+    @Getter
+    private final int rows;
+
+    /**Number of columns*/
+    @Getter
+    private final int columns;
+
+    /**Mapped content of the file*/
+    private final MappedByteBuffer buffer;
+
+    /**Position of the section of every column*/
+    private final long[] sections;
+
+    public CompiledTable(File file) throws IOException {
+        this.file = file;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            if (in.readInt() != TableWriter.MAGIC || in.readInt() != TableWriter.VERSION) {
+                throw new IOException("Not a compiled table: " + file);
+            }
+            in.readLong();
+            in.readLong();
+            in.readUTF();
+            rows = in.readInt();
+            columns = in.readInt();
+            sections = new long[columns];
+            for (int i = 0; i < columns; i++) {
+                sections[i] = in.readLong();
+            }
+            buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+        }
+    }
+
+    /**
+     * Value of a cell
+     * @param row int row index
+     * @param column int column index
+     * @return String value, empty for missing cells
+     */
+    public String get(int row, int column) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+        if (column >= columns) {
+            return "";
+        }
+        ByteBuffer view = buffer.duplicate();
+        int section = (int) sections[column];
+        int start = view.getInt(section + 4 * row);
+        int end = view.getInt(section + 4 * (row + 1));
+        byte[] bytes = new byte[end - start];
+        view.position(section + 4 * (rows + 1) + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Cells of a row
+     * @param row int row index
+     * @return String[] cells
+     */
+    public String[] row(int row) {
+        String[] cells = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            cells[i] = get(row, i);
+        }
+        return cells;
+    }
+
+    /**
+     * All rows as array
+     * @return String[][] table
+     */
+    public String[][] toArray() {
+        String[][] table = new String[rows][];
+        for (int i = 0; i < rows; i++) {
+            table[i] = row(i);
+        }
+        return table;
+    }
+
+    /**
+     * Lazy iteration over the rows
+     */
+    @Override
+    public Iterator<String[]> iterator() {
+        return iterator(RowFilter.ALL);
+    }
+
+    /**
+     * Lazy iteration over the rows accepted by a filter, rejected rows are not decoded
+     * @param filter RowFilter
+     * @return Iterator of rows
+     */
+    public Iterator<String[]> iterator(final RowFilter filter) {
+        return new Iterator<String[]>() {
+            private int next = advance(0);
+
+            private int advance(int row) {
+                while (row < rows && !filter.accepts(CompiledTable.this, row)) {
+                    row++;
+                }
+                return row;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < rows;
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String[] row = row(next);
+                next = advance(next + 1);
+                return row;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Compiled tables are read only");
+            }
+        };
+    }
+}
@@ -0,0 +1,182 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Cache of parsed data sources shared by all test methods and threads. Entries are keyed by
+ * canonical path, modification time and size, hold immutable maps and are evicted by a
+ * WatchService when their file changes.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Service("dataCache")
+public class DataCache {
+
+    /**Parsed data by path|modified|size, a future so that concurrent callers parse once*/
+    private final ConcurrentMap<String, Future<Map<String, String>>> maps = new ConcurrentHashMap<>();
+
+    /**Watched directories*/
+    private final Set<Path> directories = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+
+    /**The watch service, created with the first entry*/
+    private WatchService watcher;
+
+    /**
+     * Gets the parsed data of a file, parsing it with the loader on the first call
+     * @param path String path of the data source
+     * @param loader Callable that parses the file
+     * @return Map unmodifiable parsed data
+     * @throws Exception if parsing fails
+     */
+    public Map<String, String> get(String path, final Callable<Map<String, String>> loader) throws Exception {
+        File file = new File(path).getCanonicalFile();
+        String key = file.getPath() + "|" + file.lastModified() + "|" + file.length();
+        Future<Map<String, String>> future = maps.get(key);
+        if (future == null) {
+            FutureTask<Map<String, String>> task = new FutureTask<>(new Callable<Map<String, String>>() {
+                @Override
+                public Map<String, String> call() throws Exception {
+                    return Collections.unmodifiableMap(new HashMap<>(loader.call()));
+                }
+            });
+            future = maps.putIfAbsent(key, task);
+            if (future == null) {
+                future = task;
+                task.run();
+                watch(file);
+            }
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            maps.remove(key, future);
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Evicts all entries of a file
+     * @param file File data source
+     */
+    public void evict(File file) {
+        String prefix = file.getPath() + "|";
+        for (String key : maps.keySet()) {
+            if (key.startsWith(prefix)) {
+                maps.remove(key);
+                log.debug("Cached data of {} evicted", file);
+            }
+        }
+    }
+
+    /**
+     * Stops watching the data sources
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                log.debug("Cannot close data watcher: {}", e.getMessage());
+            }
+            watcher = null;
+        }
+    }
+
+    /**
+     * Registers the directory of a file with the watch service
+     */
+    private synchronized void watch(File file) {
+        Path directory = file.getParentFile().toPath();
+        if (directories.contains(directory)) {
+            return;
+        }
+        try {
+            if (watcher == null) {
+                watcher = FileSystems.getDefault().newWatchService();
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        poll();
+                    }
+                }, "SeletestDataWatcher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_CREATE);
+            directories.add(directory);
+        } catch (IOException e) {
+            log.warn("Data sources in {} are not watched, entries are still keyed by modification time: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts entries of changed files until the watch service is closed
+     */
+    private void poll() {
+        WatchService service = watcher;
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path) {
+                        evict(directory.resolve((Path) event.context()).toFile());
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Data watcher stopped");
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import au.com.bytecode.opencsv.CSVReader;
+import jxl.Cell;
+import jxl.Sheet;
+import jxl.Workbook;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiles Excel (xls and xlsx), CSV and properties data sources once into memory mapped columnar files.
+ * Compiled files are kept in data.store.dir and reused across suites and runs until the source changes, a changed
+ * source is compiled to a new file named after its modification time and size.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Service("dataStore")
+public class DataStore {
+
+    @Autowired
+    Environment env;
+
+    /**Opened tables by source key*/
+    private final ConcurrentMap<String, Entry> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Compiled table of a CSV or properties file (properties are compiled as key, value rows)
+     * @param path String path of the source
+     * @return CompiledTable
+     * @throws IOException
+     */
+    public CompiledTable table(String path) throws IOException {
+        return table(path, null, null);
+    }
+
+    /**
+     * Compiled table of a source, Excel tables are delimited by cells containing the table name
+     * @param path String path of the source
+     * @param sheetName String sheet of Excel sources
+     * @param tableName String table marker of Excel sources
+     * @return CompiledTable
+     * @throws IOException
+     */
+    public CompiledTable table(String path, String sheetName, String tableName) throws IOException {
+        File source = new File(path).getCanonicalFile();
+        if (!source.isFile()) {
+            throw new IOException("Data source not found: " + source);
+        }
+        String key = source.getPath() + "|" + sheetName + "|" + tableName;
+        Entry entry = tables.get(key);
+        if (entry != null && entry.matches(source)) {
+            return entry.table;
+        }
+        synchronized (this) {
+            entry = tables.get(key);
+            if (entry == null || !entry.matches(source)) {
+                entry = new Entry(source, compile(source, sheetName, tableName, key));
+                tables.put(key, entry);
+            }
+            return entry.table;
+        }
+    }
+
+    /**
+     * Compiles the source unless a current compiled file exists
+     */
+    private CompiledTable compile(File source, String sheetName, String tableName, String key) throws IOException {
+        File directory = new File(env.getProperty("data.store.dir", "./target/seletest-data"));
+        directory.mkdirs();
+        String prefix = source.getName() + "-" + hash(key) + "-";
+        File compiled = new File(directory, prefix + Long.toHexString(source.lastModified()) + "-" + source.length() + ".sdt");
+        if (TableWriter.isCurrent(compiled, source, key)) {
+            log.debug("Compiled data reused for {}", key);
+            return new CompiledTable(compiled);
+        }
+        removeVersions(directory, prefix);
+        long start = System.currentTimeMillis();
+        try (TableWriter writer = new TableWriter(compiled, source, key)) {
+            String name = source.getName().toLowerCase();
+            if (name.endsWith(".xls")) {
+                readExcel(source, sheetName, tableName, writer);
+            } else if (name.endsWith(".xlsx")) {
+                XlsxReader.read(source, sheetName, tableName, writer);
+            } else if (name.endsWith(".csv")) {
+                readCsv(source, writer);
+            } else if (name.endsWith(".properties")) {
+                readProperties(source, writer);
+            } else {
+                throw new IOException("Unsupported data source: " + source);
+            }
+            writer.finish();
+        }
+        log.debug("Data source {} compiled in {}ms", key, System.currentTimeMillis() - start);
+        return new CompiledTable(compiled);
+    }
+
+    /**
+     * Removes compiled files of earlier versions of a source. Compiled files are named after the version of
+     * their source, so a changed source never replaces a file that is still memory mapped; files that are
+     * still mapped (Windows) are left for a later run
+     */
+    private void removeVersions(File directory, final String prefix) {
+        File[] versions = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && name.endsWith(".sdt");
+            }
+        });
+        if (versions != null) {
+            for (File version : versions) {
+                if (!version.delete()) {
+                    log.debug("Compiled data {} still in use, not removed", version);
+                }
+            }
+        }
+    }
+
+    private void readCsv(File source, TableWriter writer) throws IOException {
+        try (CSVReader reader = new CSVReader(new FileReader(source))) {
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                writer.addRow(line);
+            }
+        }
+    }
+
+    private void readProperties(File source, TableWriter writer) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(source)) {
+            properties.load(reader);
+        }
+        Enumeration<?> keys = properties.propertyNames();
+        while (keys.hasMoreElements()) {
+            String key = (String) keys.nextElement();
+            writer.addRow(new String[]{key, properties.getProperty(key)});
+        }
+    }
+
+    /**
+     * Rows between the two cells that contain the table name (exclusive)
+     */
+    private void readExcel(File source, String sheetName, String tableName, TableWriter writer) throws IOException {
+        Workbook workbook;
+        try {
+            workbook = Workbook.getWorkbook(source);
+        } catch (Exception e) {
+            throw new IOException("Cannot read Excel file " + source + ": " + e.getMessage(), e);
+        }
+        try {
+            Sheet sheet = workbook.getSheet(sheetName);
+            Cell tableStart = sheet.findCell(tableName);
+            int startRow = tableStart.getRow();
+            int startCol = tableStart.getColumn();
+            Cell tableEnd = sheet.findCell(tableName, startCol + 1, startRow + 1, 100, 64000, false);
+            for (int i = startRow + 1; i < tableEnd.getRow(); i++) {
+                String[] row = new String[tableEnd.getColumn() - startCol - 1];
+                for (int j = startCol + 1; j < tableEnd.getColumn(); j++) {
+                    row[j - startCol - 1] = sheet.getCell(j, i).getContents();
+                }
+                writer.addRow(row);
+            }
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private String hash(String key) {
+        try {
+            StringBuilder hash = new StringBuilder();
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 6; i++) {
+                hash.append(String.format("%02x", digest[i]));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Opened table with the state of its source
+     */
+    private static class Entry {
+        final long size;
+        final long modified;
+        final CompiledTable table;
+
+        Entry(File source, CompiledTable table) {
+            this.size = source.length();
+            this.modified = source.lastModified();
+            this.table = table;
+        }
+
+        boolean matches(File source) {
+            return source.length() == size && source.lastModified() == modified;
+        }
+    }
+}
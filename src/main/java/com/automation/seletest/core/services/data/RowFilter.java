@@ -0,0 +1,121 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Row filter pushed down into the table readers. Samples are decided on the row index, shards read
+ * at most the key column and tags only the tag column, so rejected rows are never fully decoded.
+ * <p>Parameters: data.tags (comma separated), data.tagColumn (default 0), data.sample (ratio 0-1),
+ * data.sample.seed and the shard settings of {@link Shard}.</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class RowFilter {
+
+    /**Filter that accepts every row*/
+    public static final RowFilter ALL = new RowFilter(Collections.<String>emptySet(), 0, 1, 0, Shard.NONE);
+
+    private final Set<String> tags;
+    private final int tagColumn;
+    private final double sample;
+    private final long seed;
+    private final Shard shard;
+
+    public RowFilter(Set<String> tags, int tagColumn, double sample, long seed, Shard shard) {
+        this.tags = tags;
+        this.tagColumn = tagColumn;
+        this.sample = sample;
+        this.seed = seed;
+        this.shard = shard;
+    }
+
+    /**
+     * Filter from test parameters, missing parameters accept every row
+     * @param parameters Map of parameters
+     * @return RowFilter
+     */
+    public static RowFilter fromParameters(Map<String, String> parameters) {
+        Set<String> tags = new HashSet<>();
+        String tagList = parameters.get("data.tags");
+        if (tagList != null && !tagList.trim().isEmpty()) {
+            tags.addAll(Arrays.asList(tagList.trim().split("\\s*,\\s*")));
+        }
+        return new RowFilter(tags,
+                integer(parameters.get("data.tagColumn"), 0),
+                parameters.get("data.sample") == null ? 1 : Double.parseDouble(parameters.get("data.sample")),
+                parameters.get("data.sample.seed") == null ? 0 : Long.parseLong(parameters.get("data.sample.seed")),
+                Shard.fromParameters(parameters));
+    }
+
+    /**
+     * Checks a row, the tag cell is only decoded for rows of the shard and the sample
+     * @param table CompiledTable
+     * @param row int row index
+     * @return true if the row is accepted
+     */
+    public boolean accepts(CompiledTable table, int row) {
+        if (sample < 1 && unit(row) >= sample) {
+            return false;
+        }
+        return shard.assigns(table, row) && (tags.isEmpty() || acceptsTags(table.get(row, tagColumn)));
+    }
+
+    /**
+     * Checks the tag cell of a row, a cell may hold several tags separated by comma or space
+     * @param cell String value of the tag column
+     * @return true if any tag of the cell is selected
+     */
+    public boolean acceptsTags(String cell) {
+        for (String tag : cell.split("[,\\s]+")) {
+            if (tags.contains(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deterministic value in [0,1) for a row
+     */
+    private double unit(int row) {
+        long h = (row + seed) * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    private static int integer(String value, int defaultValue) {
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Deterministic split of data rows across JVMs. Settings come from the system properties
+ * shard.index, shard.count, shard.mode and shard.keyColumn, or from test/suite parameters with the same names.
+ * <ul>
+ * <li>hash (default) - by the hash of the key column, stable when rows are added or moved</li>
+ * <li>range - contiguous blocks of rows</li>
+ * <li>index - row index modulo shard count</li>
+ * </ul>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Getter
+public class Shard {
+
+    /**Modes for assigning rows to shards*/
+    public enum Mode{HASH,RANGE,INDEX}
+
+    /**The single shard that holds every row*/
+    public static final Shard NONE = new Shard(0, 1, Mode.INDEX, 0);
+
+    private final int index;
+    private final int count;
+    private final Mode mode;
+    private final int keyColumn;
+
+    public Shard(int index, int count, Mode mode, int keyColumn) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+        }
+        this.index = index;
+        this.count = count;
+        this.mode = mode;
+        this.keyColumn = keyColumn;
+    }
+
+    /**
+     * Shard from system properties, falling back to parameters
+     * @param parameters Map of test parameters
+     * @return Shard
+     */
+    public static Shard fromParameters(Map<String, String> parameters) {
+        int count = Integer.parseInt(setting(parameters, "shard.count", "1"));
+        if (count == 1) {
+            return NONE;
+        }
+        return new Shard(Integer.parseInt(setting(parameters, "shard.index", "0")), count,
+                Mode.valueOf(setting(parameters, "shard.mode", "hash").toUpperCase()),
+                Integer.parseInt(setting(parameters, "shard.keyColumn", "0")));
+    }
+
+    /**
+     * Checks if rows are split
+     * @return true for more than one shard
+     */
+    public boolean isActive() {
+        return count > 1;
+    }
+
+    /**
+     * Name of the shard
+     * @return String shard-index-of-count
+     */
+    public String getId() {
+        return "shard-" + index + "-of-" + count;
+    }
+
+    /**
+     * Checks if a row belongs to this shard
+     * @param table CompiledTable
+     * @param row int row index
+     * @return true if the row is assigned to this shard
+     */
+    public boolean assigns(CompiledTable table, int row) {
+        if (count == 1) {
+            return true;
+        }
+        switch (mode) {
+            case RANGE:
+                return row >= (long) table.getRows() * index / count && row < (long) table.getRows() * (index + 1) / count;
+            case INDEX:
+                return row % count == index;
+            default:
+                int h = table.get(row, keyColumn).hashCode();
+                h ^= (h >>> 16);
+                h *= 0x85EBCA6B;
+                h ^= (h >>> 13);
+                return ((h % count) + count) % count == index;
+        }
+    }
+
+    private static String setting(Map<String, String> parameters, String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            value = parameters.get(name);
+        }
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    @Override
+    public String toString() {
+        return getId() + " (" + mode.name().toLowerCase() + ")";
+    }
+}
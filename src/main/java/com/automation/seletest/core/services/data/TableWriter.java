@@ -0,0 +1,228 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a compiled table column by column. Every column is spooled to temporary files while
+ * rows are added, so memory stays flat regardless of the number of rows.
+ * <p>Layout: header (magic, version, source size, source modification time, source key, rows, columns,
+ * column positions) followed by one section per column: int offsets[rows+1] and the UTF-8 values.</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class TableWriter implements Closeable {
+
+    /**Magic number of compiled tables (SDT1)*/
+    static final int MAGIC = 0x53445431;
+
+    /**Version of the format*/
+    static final int VERSION = 1;
+
+    private final File target;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final String sourceKey;
+    private final List<Column> columns = new ArrayList<>();
+    private int rows;
+
+    public TableWriter(File target, File source, String sourceKey) {
+        this.target = target;
+        this.sourceSize = source.length();
+        this.sourceModified = source.lastModified();
+        this.sourceKey = sourceKey;
+    }
+
+    /**
+     * Adds a row, missing cells of shorter rows are empty
+     * @param row String[] cells
+     * @throws IOException
+     */
+    public void addRow(String[] row) throws IOException {
+        while (columns.size() < row.length) {
+            Column column = new Column();
+            for (int i = 0; i < rows; i++) {
+                column.add("");
+            }
+            columns.add(column);
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).add(i < row.length && row[i] != null ? row[i] : "");
+        }
+        rows++;
+    }
+
+    /**
+     * Sets the number of columns, cells of columns beyond the count are dropped
+     * and missing columns are empty
+     * @param count int number of columns
+     * @throws IOException
+     */
+    public void setColumns(int count) throws IOException {
+        while (columns.size() > count) {
+            Column column = columns.remove(columns.size() - 1);
+            column.close();
+            column.offsetsFile.delete();
+            column.valuesFile.delete();
+        }
+        while (columns.size() < count) {
+            Column column = new Column();
+            for (int i = 0; i < rows; i++) {
+                column.add("");
+            }
+            columns.add(column);
+        }
+    }
+
+    /**
+     * Assembles the compiled file
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+            out.setLength(0);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeUTF(sourceKey);
+            out.writeInt(rows);
+            out.writeInt(columns.size());
+            long positions = out.getFilePointer();
+            for (int i = 0; i < columns.size(); i++) {
+                out.writeLong(0);
+            }
+            long[] starts = new long[columns.size()];
+            byte[] buffer = new byte[8192];
+            for (int i = 0; i < columns.size(); i++) {
+                starts[i] = out.getFilePointer();
+                Column column = columns.get(i);
+                column.close();
+                for (File part : new File[]{column.offsetsFile, column.valuesFile}) {
+                    try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(part))) {
+                        int len;
+                        while ((len = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, len);
+                        }
+                    }
+                }
+            }
+            out.seek(positions);
+            for (long start : starts) {
+                out.writeLong(start);
+            }
+        } finally {
+            close();
+        }
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Cannot replace compiled table " + target);
+        }
+        if (!temp.renameTo(target)) {
+            throw new IOException("Cannot write compiled table " + target);
+        }
+    }
+
+    /**
+     * Removes the temporary files
+     */
+    @Override
+    public void close() throws IOException {
+        for (Column column : columns) {
+            column.close();
+            column.offsetsFile.delete();
+            column.valuesFile.delete();
+        }
+    }
+
+    /**
+     * Spooled column, offsets and values in separate temporary files
+     */
+    private static class Column {
+        final File offsetsFile;
+        final File valuesFile;
+        final DataOutputStream offsets;
+        final BufferedOutputStream values;
+        int position;
+        boolean closed;
+
+        Column() throws IOException {
+            offsetsFile = File.createTempFile("seletest-column", ".idx");
+            valuesFile = File.createTempFile("seletest-column", ".val");
+            offsets = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(offsetsFile)));
+            values = new BufferedOutputStream(new FileOutputStream(valuesFile));
+            offsets.writeInt(0);
+        }
+
+        void add(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            values.write(bytes);
+            position += bytes.length;
+            offsets.writeInt(position);
+        }
+
+        void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                offsets.close();
+                values.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the header of a compiled file to check if it is still valid for its source
+     * @param compiled File compiled table
+     * @param source File source of the table
+     * @param sourceKey String key of the source (path, sheet and table)
+     * @return true if the compiled file matches the source
+     */
+    static boolean isCurrent(File compiled, File source, String sourceKey) {
+        if (!compiled.isFile()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(compiled)))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION && in.readLong() == source.length()
+                    && in.readLong() == source.lastModified() && in.readUTF().equals(sourceKey);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
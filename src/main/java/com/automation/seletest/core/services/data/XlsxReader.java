@@ -0,0 +1,269 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Streams a table of an xlsx sheet with the SAX event model of POI. The sheet XML is parsed once,
+ * rows between the two table markers are written to the table as they are read and parsing
+ * stops at the end marker, so only the current row is kept in memory.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+class XlsxReader extends DefaultHandler {
+
+    private final String tableName;
+    private final TableWriter writer;
+    private final ReadOnlySharedStringsTable strings;
+    private final StylesTable styles;
+    private final DataFormatter formatter = new DataFormatter();
+
+    /**Row and column of the start marker, -1 until found*/
+    private int startRow = -1;
+    private int startCol = -1;
+
+    /**Last table row written*/
+    private int lastRow;
+
+    /**Column of the end marker, -1 until found*/
+    private int endCol = -1;
+
+    /**Cells of the current row by column, only those right of the start marker once it is found*/
+    private final TreeMap<Integer, String> cells = new TreeMap<>();
+    private final StringBuilder value = new StringBuilder();
+    private int row = -1;
+    private int col;
+    private String type;
+    private String style;
+    private boolean inValue;
+
+    private XlsxReader(String tableName, TableWriter writer, ReadOnlySharedStringsTable strings, StylesTable styles) {
+        this.tableName = tableName;
+        this.writer = writer;
+        this.strings = strings;
+        this.styles = styles;
+    }
+
+    /**
+     * Writes the rows between the two cells that contain the table name (exclusive)
+     * @param source File xlsx workbook
+     * @param sheetName String sheet name
+     * @param tableName String table marker
+     * @param writer TableWriter target
+     * @throws IOException if the sheet or the markers are missing or the file cannot be parsed
+     */
+    static void read(File source, String sheetName, String tableName, TableWriter writer) throws IOException {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(source, PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            XlsxReader handler = new XlsxReader(tableName, writer, new ReadOnlySharedStringsTable(pkg), reader.getStylesTable());
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheets.getSheetName().equals(sheetName)) {
+                        handler.parse(sheet);
+                        return;
+                    }
+                }
+            }
+            throw new IOException("Sheet " + sheetName + " not found in " + source);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cannot read Excel file " + source + ": " + e.getMessage(), e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    private void parse(InputStream sheet) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        XMLReader parser = factory.newSAXParser().getXMLReader();
+        parser.setContentHandler(this);
+        try {
+            parser.parse(new InputSource(sheet));
+        } catch (EndOfTable e) {
+            for (int i = lastRow + 1; i < row; i++) {
+                writer.addRow(new String[0]);
+            }
+            writer.setColumns(endCol - startCol - 1);
+            return;
+        }
+        throw new IOException("Table " + tableName + (startRow < 0 ? " not found" : " has no end marker"));
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        switch (localName) {
+            case "row":
+                row = attributes.getValue("r") != null ? Integer.parseInt(attributes.getValue("r")) - 1 : row + 1;
+                col = -1;
+                cells.clear();
+                break;
+            case "c":
+                col = attributes.getValue("r") != null ? column(attributes.getValue("r")) : col + 1;
+                type = attributes.getValue("t");
+                style = attributes.getValue("s");
+                value.setLength(0);
+                break;
+            case "v":
+            case "t":
+                inValue = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inValue) {
+            value.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "v":
+            case "t":
+                inValue = false;
+                break;
+            case "c":
+                cell(format());
+                break;
+            case "row":
+                if (startRow >= 0 && row > startRow) {
+                    row();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void cell(String text) throws EndOfTable {
+        if (startRow < 0) {
+            if (tableName.equals(text)) {
+                startRow = row;
+                startCol = col;
+                lastRow = row;
+            }
+        } else if (row > startRow && col > startCol) {
+            if (tableName.equals(text)) {
+                endCol = col;
+                throw new EndOfTable();
+            }
+            cells.put(col, text);
+        }
+    }
+
+    /**
+     * Writes the current row and the empty rows skipped by the sheet XML before it
+     */
+    private void row() throws SAXException {
+        try {
+            for (int i = lastRow + 1; i < row; i++) {
+                writer.addRow(new String[0]);
+            }
+            String[] values = new String[cells.isEmpty() ? 0 : cells.lastKey() - startCol];
+            for (Map.Entry<Integer, String> cell : cells.entrySet()) {
+                values[cell.getKey() - startCol - 1] = cell.getValue();
+            }
+            writer.addRow(values);
+            lastRow = row;
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    /**
+     * Contents of the current cell as displayed by Excel
+     */
+    private String format() {
+        String raw = value.toString();
+        if (type == null || "n".equals(type)) {
+            if (raw.isEmpty()) {
+                return "";
+            }
+            if (style != null) {
+                XSSFCellStyle cellStyle = styles.getStyleAt(Integer.parseInt(style));
+                return formatter.formatRawCellContents(Double.parseDouble(raw), cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+            }
+            return formatter.formatRawCellContents(Double.parseDouble(raw), 0, "General");
+        }
+        switch (type) {
+            case "s":
+                return strings.getEntryAt(Integer.parseInt(raw));
+            case "b":
+                return "1".equals(raw) ? "TRUE" : "FALSE";
+            default:
+                return raw;
+        }
+    }
+
+    /**
+     * Zero based column of a cell reference like AB12
+     */
+    private static int column(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length() && Character.isLetter(reference.charAt(i)); i++) {
+            column = column * 26 + (reference.charAt(i) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Stops parsing once the end marker is read
+     */
+    private static class EndOfTable extends SAXException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.impact;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index of the page object classes and locators used by each test, recorded while the tests run.
+ * Tests run in this JVM replace their entries when the index is saved, entries of other tests are kept.
+ * <p>File format (impact.index, ./target/test-impact.index): one line per test and page object class,
+ * test TAB class [TAB locator]...</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public final class ImpactIndex {
+
+    /**Page objects and their locators per test (class#method) recorded in this JVM*/
+    private static final ConcurrentMap<String, ConcurrentMap<String, Set<String>>> recorded = new ConcurrentHashMap<>();
+
+    /**Page object classes being executed per thread*/
+    private static final ThreadLocal<Deque<String>> pageObjects = new ThreadLocal<Deque<String>>() {
+        @Override
+        protected Deque<String> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
+    private ImpactIndex() {
+    }
+
+    /**
+     * Enters a page object method
+     * @param test String test key, null outside a test
+     * @param pageObject Class of the page object, nested classes are recorded as their top level class
+     */
+    public static void enter(String test, Class<?> pageObject) {
+        String name = pageObject.getName();
+        name = name.contains("$") ? name.substring(0, name.indexOf('$')) : name;
+        pageObjects.get().push(name);
+        if (test != null) {
+            entries(test, name);
+        }
+    }
+
+    /**
+     * Exits the current page object method
+     */
+    public static void exit() {
+        Deque<String> stack = pageObjects.get();
+        if (!stack.isEmpty()) {
+            stack.pop();
+        }
+    }
+
+    /**
+     * Records a locator used by the current page object
+     * @param test String test key, null outside a test
+     * @param locator String locator
+     */
+    public static void locator(String test, String locator) {
+        String pageObject = pageObjects.get().peek();
+        if (test != null && pageObject != null) {
+            entries(test, pageObject).add(locator);
+        }
+    }
+
+    private static Set<String> entries(String test, String pageObject) {
+        ConcurrentMap<String, Set<String>> classes = recorded.get(test);
+        if (classes == null) {
+            recorded.putIfAbsent(test, new ConcurrentHashMap<String, Set<String>>());
+            classes = recorded.get(test);
+        }
+        Set<String> locators = classes.get(pageObject);
+        if (locators == null) {
+            classes.putIfAbsent(pageObject, Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>()));
+            locators = classes.get(pageObject);
+        }
+        return locators;
+    }
+
+    /**
+     * @return File of the index, impact.index system property or ./target/test-impact.index
+     */
+    public static File file() {
+        return new File(System.getProperty("impact.index", "./target/test-impact.index"));
+    }
+
+    /**
+     * Merges the recorded tests into the index file
+     * @throws IOException
+     */
+    public static synchronized void save() throws IOException {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, Set<String>>> index = load(file());
+        for (Map.Entry<String, ConcurrentMap<String, Set<String>>> test : recorded.entrySet()) {
+            Map<String, Set<String>> classes = new TreeMap<>();
+            for (Map.Entry<String, Set<String>> pageObject : test.getValue().entrySet()) {
+                classes.put(pageObject.getKey(), new TreeSet<>(pageObject.getValue()));
+            }
+            index.put(test.getKey(), classes);
+        }
+        File file = file().getAbsoluteFile();
+        file.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            for (Map.Entry<String, Map<String, Set<String>>> test : index.entrySet()) {
+                for (Map.Entry<String, Set<String>> pageObject : test.getValue().entrySet()) {
+                    StringBuilder line = new StringBuilder(test.getKey()).append('\t').append(pageObject.getKey());
+                    for (String locator : pageObject.getValue()) {
+                        line.append('\t').append(locator);
+                    }
+                    out.println(line);
+                }
+            }
+        }
+        log.debug("Impact index of {} tests saved to {}", recorded.size(), file());
+    }
+
+    /**
+     * Reads an index file
+     * @param file File index
+     * @return Map of page object classes and their locators per test, empty if the file does not exist
+     * @throws IOException
+     */
+    public static Map<String, Map<String, Set<String>>> load(File file) throws IOException {
+        Map<String, Map<String, Set<String>>> index = new TreeMap<>();
+        if (!file.isFile()) {
+            return index;
+        }
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length < 2) {
+                    continue;
+                }
+                if (!index.containsKey(fields[0])) {
+                    index.put(fields[0], new TreeMap<String, Set<String>>());
+                }
+                Set<String> locators = new TreeSet<>();
+                for (int i = 2; i < fields.length; i++) {
+                    locators.add(fields[i]);
+                }
+                index.get(fields[0]).put(fields[1], locators);
+            }
+        }
+        return index;
+    }
+}
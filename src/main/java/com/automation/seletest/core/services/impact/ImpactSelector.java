@@ -0,0 +1,312 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.impact;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+/**
+ * Selects the tests affected by the changes since a git revision (impact.base system property), using the
+ * {@link ImpactIndex} of a previous run.
+ * <ul>
+ * <li>page object changes select the tests that used the class; if the changed lines only touch locators,
+ * only the tests that used those locators</li>
+ * <li>test class changes select the tests of the class</li>
+ * <li>framework sources, resources and the pom select all tests</li>
+ * </ul>
+ * Tests missing from the index always run, as do the tests that selected tests of the same class depend on.
+ * Without impact.base, an index or git, all tests run.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public final class ImpactSelector {
+
+    /**Package of page objects*/
+    private static final String PAGE_OBJECTS = "com.automation.seletest.pagecomponents.pageObjects.";
+
+    private static boolean resolved;
+
+    /**Tests in the index*/
+    private static Set<String> known;
+
+    /**Affected tests, null if all tests run*/
+    private static Set<String> affected;
+
+    /**Tests that run per test class, affected tests and their dependencies*/
+    private static final Map<Class<?>, Set<Method>> required = new HashMap<>();
+
+    private ImpactSelector() {
+    }
+
+    /**
+     * @param testClass Class of the test, null for the declaring class of the method
+     * @param method Method test method
+     * @return true if the test has to run
+     */
+    public static synchronized boolean isSelected(Class<?> testClass, Method method) {
+        if (!resolved) {
+            resolved = true;
+            resolve();
+        }
+        if (affected == null) {
+            return true;
+        }
+        Class<?> type = testClass != null ? testClass : method.getDeclaringClass();
+        Set<Method> selected = required.get(type);
+        if (selected == null) {
+            selected = required(type);
+            required.put(type, selected);
+        }
+        return selected.contains(method) || affected(type, method);
+    }
+
+    private static boolean affected(Class<?> type, Method method) {
+        String test = type.getName() + "#" + method.getName();
+        return !known.contains(test) || affected.contains(test);
+    }
+
+    /**
+     * Affected tests of a class and the tests of the class they depend on, directly or through other
+     * dependencies, by dependsOnMethods or dependsOnGroups
+     */
+    private static Set<Method> required(Class<?> type) {
+        List<Method> tests = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (annotation(method) != null) {
+                tests.add(method);
+            }
+        }
+        Set<Method> selected = new HashSet<>();
+        Deque<Method> pending = new ArrayDeque<>();
+        for (Method test : tests) {
+            if (affected(type, test)) {
+                pending.add(test);
+            }
+        }
+        while (!pending.isEmpty()) {
+            Method test = pending.poll();
+            if (!selected.add(test)) {
+                continue;
+            }
+            for (Method dependency : tests) {
+                if (!selected.contains(dependency) && dependsOn(test, dependency)) {
+                    log.debug("Test {} kept for the dependency of {}", dependency.getName(), test.getName());
+                    pending.add(dependency);
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return @Test of the method, or of its class for public methods of classes annotated with @Test
+     */
+    private static Test annotation(Method method) {
+        Test test = method.getAnnotation(Test.class);
+        if (test == null && method.getDeclaringClass() != Object.class) {
+            test = method.getDeclaringClass().getAnnotation(Test.class);
+        }
+        return test;
+    }
+
+    private static boolean dependsOn(Method test, Method dependency) {
+        Test classTest = test.getDeclaringClass().getAnnotation(Test.class);
+        List<String> methods = new ArrayList<>(Arrays.asList(annotation(test).dependsOnMethods()));
+        List<String> groups = new ArrayList<>(Arrays.asList(annotation(test).dependsOnGroups()));
+        if (classTest != null && classTest != annotation(test)) {
+            methods.addAll(Arrays.asList(classTest.dependsOnMethods()));
+            groups.addAll(Arrays.asList(classTest.dependsOnGroups()));
+        }
+        for (String name : methods) {
+            if (dependency.getName().matches(name.substring(name.lastIndexOf('.') + 1))) {
+                return true;
+            }
+        }
+        Set<String> dependencyGroups = new HashSet<>(Arrays.asList(annotation(dependency).groups()));
+        Test dependencyClass = dependency.getDeclaringClass().getAnnotation(Test.class);
+        if (dependencyClass != null) {
+            dependencyGroups.addAll(Arrays.asList(dependencyClass.groups()));
+        }
+        for (String group : groups) {
+            for (String dependencyGroup : dependencyGroups) {
+                if (dependencyGroup.matches(group)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void resolve() {
+        String base = System.getProperty("impact.base");
+        if (base == null) {
+            return;
+        }
+        try {
+            Map<String, Map<String, Set<String>>> index = ImpactIndex.load(ImpactIndex.file());
+            if (index.isEmpty()) {
+                log.warn("No impact index in {}, all tests run", ImpactIndex.file());
+                return;
+            }
+            Set<String> selected = new HashSet<>();
+            for (String path : git("diff", "--name-only", base)) {
+                if (!affects(path, base, index, selected)) {
+                    log.info("{} changed, all tests run", path);
+                    return;
+                }
+            }
+            known = index.keySet();
+            affected = selected;
+            log.info("{} of {} indexed tests affected by changes since {}", selected.size(), known.size(), base);
+        } catch (IOException | InterruptedException e) {
+            log.warn("Test impact not resolved, all tests run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the tests affected by a changed file
+     * @return false if the change affects all tests
+     */
+    private static boolean affects(String path, String base, Map<String, Map<String, Set<String>>> index, Set<String> selected) throws IOException, InterruptedException {
+        if (path.equals("pom.xml")) {
+            return false;
+        }
+        if (!path.startsWith("src/")) {
+            return true;
+        }
+        if (!path.endsWith(".java") || !path.contains("/java/")) {
+            return false;
+        }
+        String type = path.substring(path.indexOf("/java/") + 6, path.length() - 5).replace('/', '.');
+        if (type.startsWith(PAGE_OBJECTS)) {
+            List<String> lines = changedLines(base, path);
+            boolean locatorsOnly = true;
+            Set<String> used = new HashSet<>();
+            for (Map<String, Set<String>> classes : index.values()) {
+                if (classes.containsKey(type)) {
+                    used.addAll(classes.get(type));
+                }
+            }
+            for (String line : lines) {
+                locatorsOnly &= contains(line, used);
+            }
+            for (Map.Entry<String, Map<String, Set<String>>> test : index.entrySet()) {
+                Set<String> locators = test.getValue().get(type);
+                if (locators != null && (!locatorsOnly || touches(lines, locators))) {
+                    selected.add(test.getKey());
+                }
+            }
+            return true;
+        }
+        boolean testClass = false;
+        for (String test : index.keySet()) {
+            if (test.startsWith(type + "#")) {
+                selected.add(test);
+                testClass = true;
+            }
+        }
+        return testClass || path.startsWith("src/test/") && !isHelper(type);
+    }
+
+    /**
+     * Test sources that are not in the index are new tests, which run anyway, unless they look like shared helpers
+     */
+    private static boolean isHelper(String type) {
+        String name = type.substring(type.lastIndexOf('.') + 1);
+        return !name.endsWith("Test") && !name.startsWith("Test");
+    }
+
+    private static boolean touches(List<String> lines, Set<String> locators) {
+        for (String line : lines) {
+            if (contains(line, locators)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(String line, Set<String> locators) {
+        for (String locator : locators) {
+            if (line.contains(locator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Added and removed lines of a file since the base revision
+     */
+    private static List<String> changedLines(String base, String path) throws IOException, InterruptedException {
+        List<String> lines = new ArrayList<>();
+        for (String line : git("diff", "-U0", base, "--", path)) {
+            if ((line.startsWith("+") || line.startsWith("-")) && !line.startsWith("+++") && !line.startsWith("---")
+                    && !line.substring(1).trim().isEmpty()) {
+                lines.add(line.substring(1));
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> git(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        for (String arg : args) {
+            command.add(arg);
+        }
+        Process process = new ProcessBuilder(command).directory(new File(System.getProperty("impact.repo", "."))).redirectErrorStream(true).start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                output.add(line);
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException("git " + args[0] + " failed: " + output);
+        }
+        return output;
+    }
+}
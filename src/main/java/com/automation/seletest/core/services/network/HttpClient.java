@@ -1,6 +1,7 @@
 package com.automation.seletest.core.services.network;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -13,6 +14,7 @@ import org.springframework.web.client.RestTemplate;
 public class HttpClient {
 
     @Autowired
+    @Lazy
     RestTemplate template;
 
     /**
@@ -0,0 +1,376 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import net.lightbody.bmp.proxy.ProxyServer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Disk backed HTTP cache for static assets shared by all sessions. Proxies rewrite asset URLs
+ * to a local server which serves them from disk after the first fetch. Only immutable assets are stored:
+ * Cache-Control immutable, fingerprinted file names or a max-age of at least asset.cache.min.age seconds
+ * (until it expires). Cache headers of the origin are passed through unchanged.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Component
+@Slf4j
+@ManagedResource(objectName = AssetCache.MBEAN_NAME, description = "Hit metrics of the local static asset cache")
+public class AssetCache {
+
+    public static final String MBEAN_NAME = "seletest.mbeans:type=performance,name=AssetCache";
+
+    /**Default pattern of cacheable assets, the whole URL is group 1 and local URLs are excluded*/
+    private static final String ASSET_PATTERN = "^(https?://(?!localhost[:/]|127\\.0\\.0\\.1)[^?#]*\\.(?:js|css|png|jpe?g|gif|svg|ico|woff2?|ttf|eot)(?:\\?[^#]*)?)$";
+
+    /**Fingerprinted file names, a hash of 8+ hex characters in the name (app.3f2a9c1b.js, app-3f2a9c1b.css)*/
+    private static final Pattern FINGERPRINT = Pattern.compile("[./_-][0-9a-fA-F]{8,}\\.[a-z0-9]+(?:\\?|$)");
+
+    /**The max-age directive of Cache-Control*/
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    /**Response headers of the origin passed to the browser and stored with the asset*/
+    private static final String[] PASSED_HEADERS = {"Content-Type", "Cache-Control", "Expires", "ETag", "Last-Modified"};
+
+    /**Request headers forwarded to the origin*/
+    private static final String[] FORWARDED_HEADERS = {"User-Agent", "Accept", "Accept-Language", "Cookie", "Referer"};
+
+    @Autowired
+    Environment env;
+
+    /**The local server, started with the first proxy*/
+    private HttpServer server;
+
+    /**Threads of the server*/
+    private ExecutorService executor;
+
+    /**Metrics per asset URL*/
+    private final ConcurrentMap<String, AssetStats> assets = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Checks if the asset cache mode is enabled
+     * @return true if asset.cache is true
+     */
+    public boolean isEnabled() {
+        return env.getProperty("asset.cache", Boolean.class, false);
+    }
+
+    /**
+     * Routes the static assets of a proxy through the cache
+     * @param proxy ProxyServer
+     * @throws IOException
+     */
+    public void attach(ProxyServer proxy) throws IOException {
+        proxy.rewriteUrl(env.getProperty("asset.cache.pattern", ASSET_PATTERN), "http://localhost:" + start() + "/asset/$1");
+    }
+
+    @ManagedAttribute(description = "Requests served from disk")
+    public long getHits() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "Requests fetched from the origin")
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @ManagedAttribute(description = "Ratio of requests served from disk")
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @ManagedOperation(description = "Returns hits, misses and bytes served from disk per asset, most hit first")
+    public List<String> report() {
+        List<Map.Entry<String, AssetStats>> entries = new ArrayList<>(assets.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, AssetStats>>() {
+            @Override
+            public int compare(Map.Entry<String, AssetStats> a, Map.Entry<String, AssetStats> b) {
+                return Long.compare(b.getValue().hits.get(), a.getValue().hits.get());
+            }
+        });
+        List<String> report = new ArrayList<>(entries.size());
+        for (Map.Entry<String, AssetStats> entry : entries) {
+            report.add(entry.getKey() + "," + entry.getValue().hits + "," + entry.getValue().misses + "," + entry.getValue().bytes);
+        }
+        return report;
+    }
+
+    /**
+     * Writes the metrics next to the cached files, stops the server and its threads
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        server = null;
+        executor.shutdownNow();
+        executor = null;
+        try (PrintWriter out = new PrintWriter(new File(directory(), "metrics.csv"), "UTF-8")) {
+            out.println("url,hits,misses,bytesFromDisk");
+            for (String line : report()) {
+                out.println(line);
+            }
+        } catch (IOException e) {
+            log.error("Cannot write asset cache metrics: {}", e.getMessage());
+        }
+        log.info("Asset cache: {} hits, {} misses", hits, misses);
+    }
+
+    private synchronized int start() throws IOException {
+        if (server == null) {
+            directory().mkdirs();
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            executor = Executors.newCachedThreadPool();
+            server.setExecutor(executor);
+            server.createContext("/asset/", new HttpHandler() {
+                @Override
+                public void handle(HttpExchange exchange) throws IOException {
+                    serve(exchange);
+                }
+            });
+            server.start();
+            log.debug("Asset cache started on port {} with directory {}", server.getAddress().getPort(), directory());
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Serves an asset from disk or fetches it, storing only immutable assets
+     * @param exchange HttpExchange
+     * @throws IOException
+     */
+    private void serve(HttpExchange exchange) throws IOException {
+        String raw = exchange.getRequestURI().getRawPath();
+        String query = exchange.getRequestURI().getRawQuery();
+        String url = raw.substring("/asset/".length()) + (query == null ? "" : "?" + query);
+        AssetStats stats = assets.get(url);
+        if (stats == null) {
+            AssetStats created = new AssetStats();
+            stats = assets.putIfAbsent(url, created);
+            stats = stats == null ? created : stats;
+        }
+        File body = new File(directory(), key(url));
+        File meta = new File(directory(), key(url) + ".meta");
+        try {
+            List<String> stored = meta.isFile() && body.isFile() ? Files.readAllLines(meta.toPath(), StandardCharsets.UTF_8) : null;
+            if (stored != null && !stored.isEmpty() && fresh(stored.get(0))) {
+                byte[] content = Files.readAllBytes(body.toPath());
+                hits.incrementAndGet();
+                stats.hits.incrementAndGet();
+                stats.bytes.addAndGet(content.length);
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (String line : stored.subList(1, stored.size())) {
+                    int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        headers.put(line.substring(0, colon), line.substring(colon + 1).trim());
+                    }
+                }
+                respond(exchange, 200, headers, content);
+                return;
+            }
+            misses.incrementAndGet();
+            stats.misses.incrementAndGet();
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            for (String header : FORWARDED_HEADERS) {
+                String value = exchange.getRequestHeaders().getFirst(header);
+                if (value != null) {
+                    connection.setRequestProperty(header, value);
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            byte[] content = in == null ? new byte[0] : read(in);
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String header : PASSED_HEADERS) {
+                if (connection.getHeaderField(header) != null) {
+                    headers.put(header, connection.getHeaderField(header));
+                }
+            }
+            long expires = status == 200 ? expires(url, headers.get("Cache-Control")) : -1;
+            if (expires >= 0) {
+                StringBuilder lines = new StringBuilder().append(expires).append('\n');
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    lines.append(header.getKey()).append(": ").append(header.getValue()).append('\n');
+                }
+                store(body, content);
+                store(meta, lines.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            respond(exchange, status, headers, content);
+        } catch (IOException e) {
+            log.debug("Asset cache cannot serve {}: {}", url, e.getMessage());
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("Content-Type", "text/plain");
+            headers.put("Cache-Control", "no-store");
+            respond(exchange, 502, headers, e.getMessage() == null ? new byte[0] : e.getMessage().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Expiry of a fetched asset: immutable and fingerprinted assets never expire, assets with a long max-age
+     * (asset.cache.min.age seconds) expire with it, anything else is not stored
+     * @param url String asset URL
+     * @param cacheControl String Cache-Control of the origin, may be null
+     * @return long expiry in epoch ms, 0 for never, -1 if the asset is not stored
+     */
+    private long expires(String url, String cacheControl) {
+        String directives = cacheControl == null ? "" : cacheControl.toLowerCase();
+        if (directives.contains("no-store") || directives.contains("no-cache") || directives.contains("private")) {
+            return -1;
+        }
+        if (directives.contains("immutable") || FINGERPRINT.matcher(url).find()) {
+            return 0;
+        }
+        Matcher maxAge = MAX_AGE.matcher(directives);
+        if (maxAge.find()) {
+            long seconds = Long.parseLong(maxAge.group(1));
+            if (seconds >= env.getProperty("asset.cache.min.age", Long.class, 2592000L)) {
+                return System.currentTimeMillis() + seconds * 1000;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param expires String first line of the stored headers
+     * @return true if the stored asset has not expired
+     */
+    private boolean fresh(String expires) {
+        try {
+            long time = Long.parseLong(expires.trim());
+            return time == 0 || time > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, String> headers, byte[] content) throws IOException {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+        }
+        exchange.sendResponseHeaders(status, content.length == 0 ? -1 : content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    /**
+     * Writes a file atomically so that concurrent sessions never read partial content
+     */
+    private void store(File file, byte[] content) throws IOException {
+        File temp = File.createTempFile("asset", ".tmp", directory());
+        try (OutputStream out = new FileOutputStream(temp)) {
+            out.write(content);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private byte[] read(InputStream in) throws IOException {
+        try (InputStream input = in; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = input.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private File directory() {
+        return new File(env.getProperty("asset.cache.dir", "./asset-cache"));
+    }
+
+    /**
+     * File name of an asset
+     * @param url String asset URL
+     * @return String sha-1 of the URL
+     */
+    private String key(String url) {
+        try {
+            StringBuilder key = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(url.getBytes(StandardCharsets.UTF_8))) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Metrics of one asset
+     */
+    private static class AssetStats {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+    }
+}
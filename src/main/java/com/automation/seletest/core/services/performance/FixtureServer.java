@@ -0,0 +1,146 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server that serves the fixtures of stub rules. Proxies rewrite
+ * stubbed URLs to this server.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Component
+@Slf4j
+public class FixtureServer {
+
+    /**The server, started with the first fixture*/
+    private HttpServer server;
+
+    /**Threads of the server*/
+    private ExecutorService executor;
+
+    /**URLs of registered fixtures by path*/
+    private final Map<String, String> fixtures = new HashMap<>();
+
+    /**
+     * Registers a fixture (classpath resource or file) and returns its local URL
+     * @param fixture String path of the fixture
+     * @return String URL serving the fixture
+     * @throws IOException
+     */
+    public synchronized String register(String fixture) throws IOException {
+        String url = fixtures.get(fixture);
+        if (url != null) {
+            return url;
+        }
+        if (server == null) {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            executor = Executors.newCachedThreadPool();
+            server.setExecutor(executor);
+            server.start();
+            log.debug("Fixture server started on port {}", server.getAddress().getPort());
+        }
+        final byte[] body = read(fixture);
+        final String type = URLConnection.guessContentTypeFromName(fixture);
+        String context = "/fixtures/" + fixtures.size() + "/" + new File(fixture).getName();
+        server.createContext(context, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Content-Type", type == null ? "application/octet-stream" : type);
+                exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        url = "http://localhost:" + server.getAddress().getPort() + context;
+        fixtures.put(fixture, url);
+        return url;
+    }
+
+    /**
+     * Stops the server and its threads
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            executor.shutdownNow();
+            executor = null;
+            fixtures.clear();
+        }
+    }
+
+    /**
+     * @param fixture String path of the fixture
+     * @return true if the fixture is a classpath resource or a file
+     */
+    public static boolean exists(String fixture) {
+        return FixtureServer.class.getClassLoader().getResource(fixture) != null || new File(fixture).isFile();
+    }
+
+    private byte[] read(String fixture) throws IOException {
+        InputStream in = getClass().getClassLoader().getResourceAsStream(fixture);
+        if (in == null) {
+            File file = new File(fixture);
+            if (!file.isFile()) {
+                throw new FileNotFoundException("Fixture not found in classpath or file system: " + fixture);
+            }
+            in = new FileInputStream(file);
+        }
+        try (InputStream input = in; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = input.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        }
+    }
+}
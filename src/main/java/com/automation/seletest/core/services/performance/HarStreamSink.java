@@ -0,0 +1,222 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.lightbody.bmp.core.har.Har;
+import net.lightbody.bmp.core.har.HarContent;
+import net.lightbody.bmp.core.har.HarEntry;
+import net.lightbody.bmp.core.har.HarTimings;
+import net.lightbody.bmp.proxy.http.BrowserMobHttpResponse;
+import net.lightbody.bmp.proxy.http.ResponseInterceptor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Response interceptor that appends every HAR entry to disk as one JSON line (NDJSON)
+ * and removes it from the in-memory HAR of the proxy.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class HarStreamSink implements ResponseInterceptor {
+
+    /**Maximum size of response bodies kept in the stream, negative for no limit*/
+    private final int bodyLimit;
+
+    /**File receiving the entries of the current test*/
+    private File current;
+
+    /**Writer of the current file*/
+    private Writer writer;
+
+    /**Aggregates of the current test*/
+    @Getter
+    private RequestMetrics metrics = new RequestMetrics();
+
+    public HarStreamSink(int bodyLimit) {
+        this.bodyLimit = bodyLimit;
+    }
+
+    @Override
+    public void process(BrowserMobHttpResponse response, Har har) {
+        HarEntry entry = response.getEntry();
+        if (entry == null) {
+            return;
+        }
+        try {
+            write(entry);
+        } catch (IOException e) {
+            log.error("Cannot stream HAR entry {}: {}", entry.getRequest().getUrl(), e.getMessage());
+        } finally {
+            if (har != null) {
+                har.getLog().getEntries().remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Appends an entry to the current file and to the aggregates
+     * @param entry HarEntry
+     * @throws IOException
+     */
+    public synchronized void write(HarEntry entry) throws IOException {
+        if (writer == null) {
+            current = File.createTempFile("seletest-har", ".ndjson");
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(current), StandardCharsets.UTF_8));
+        }
+        writer.write(toJson(entry));
+        writer.write('\n');
+        metrics.add(entry);
+    }
+
+    /**
+     * Completes the stream of a test: entries are moved to the target file and
+     * the aggregates are written next to it as .metrics.json
+     * @param target File NDJSON file of the test
+     * @return RequestMetrics of the test
+     * @throws IOException
+     */
+    public synchronized RequestMetrics finish(File target) throws IOException {
+        RequestMetrics completed = metrics;
+        metrics = new RequestMetrics();
+        if (target.getParentFile() != null) {
+            target.getParentFile().mkdirs();
+        }
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            if (target.exists()) {
+                target.delete();
+            }
+            if (!current.renameTo(target)) {
+                Files.move(current.toPath(), target.toPath());
+            }
+        } else {
+            target.createNewFile();
+        }
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(new File(target.getPath().replaceAll("\\.ndjson$", "") + ".metrics.json")), StandardCharsets.UTF_8)) {
+            out.write(completed.toJson());
+        }
+        return completed;
+    }
+
+    /**
+     * Closes the stream without keeping the entries
+     */
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.debug("Cannot close HAR stream: {}", e.getMessage());
+            }
+            current.delete();
+            writer = null;
+        }
+    }
+
+    /**
+     * Single line JSON representation of an entry
+     * @param entry HarEntry
+     * @return String json
+     */
+    private String toJson(HarEntry entry) {
+        StringBuilder json = new StringBuilder(256);
+        Date started = entry.getStartedDateTime();
+        json.append("{\"startedDateTime\":").append(quote(started == null ? null : new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(started)))
+            .append(",\"pageref\":").append(quote(entry.getPageref()))
+            .append(",\"time\":").append(entry.getTime())
+            .append(",\"request\":{\"method\":").append(quote(entry.getRequest().getMethod()))
+            .append(",\"url\":").append(quote(entry.getRequest().getUrl()))
+            .append(",\"bodySize\":").append(entry.getRequest().getBodySize()).append('}');
+        if (entry.getResponse() != null) {
+            json.append(",\"response\":{\"status\":").append(entry.getResponse().getStatus())
+                .append(",\"bodySize\":").append(entry.getResponse().getBodySize());
+            HarContent content = entry.getResponse().getContent();
+            if (content != null) {
+                json.append(",\"content\":{\"size\":").append(content.getSize())
+                    .append(",\"mimeType\":").append(quote(content.getMimeType()));
+                String text = content.getText();
+                if (text != null && (bodyLimit < 0 || text.length() <= bodyLimit)) {
+                    json.append(",\"text\":").append(quote(text));
+                }
+                json.append('}');
+            }
+            json.append('}');
+        }
+        HarTimings timings = entry.getTimings();
+        if (timings != null) {
+            json.append(",\"timings\":{\"blocked\":").append(timings.getBlocked())
+                .append(",\"dns\":").append(timings.getDns())
+                .append(",\"connect\":").append(timings.getConnect())
+                .append(",\"send\":").append(timings.getSend())
+                .append(",\"wait\":").append(timings.getWait())
+                .append(",\"receive\":").append(timings.getReceive()).append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Quotes a JSON string
+     * @param value String
+     * @return String quoted value or null
+     */
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import com.automation.seletest.core.services.utilities.PerformanceUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.ServerSocket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Pool of BrowserMob proxies shared by all performance sessions. A proxy is leased by a session,
+ * keeps its own HAR (split per test) and returns to the pool when the session closes, so proxies
+ * are started once per concurrent session instead of once per session.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Component
+@Slf4j
+public class ProxyPool {
+
+    /**Attempts to start a proxy on a free port*/
+    private static final int PORT_ATTEMPTS = 5;
+
+    /**Factory of prototype performance services*/
+    @Autowired
+    ObjectFactory<PerformanceUtils> performanceFactory;
+
+    /**Proxies with HAR capture waiting for a session*/
+    private final Deque<PerformanceUtils> idle = new ArrayDeque<>();
+
+    /**Proxies without HAR capture waiting for a session*/
+    private final Deque<PerformanceUtils> idleRules = new ArrayDeque<>();
+
+    /**All proxies started by the pool*/
+    private final List<PerformanceUtils> started = new ArrayList<>();
+
+    /**
+     * Lease a proxy for a session, starting a new one on a free port if none is idle
+     * @param harName String name of the first HAR, null for a proxy without HAR capture
+     * @return PerformanceUtils with running proxy
+     * @throws Exception
+     */
+    public PerformanceUtils lease(String harName) throws Exception {
+        PerformanceUtils performance;
+        synchronized (this) {
+            performance = harName != null ? idle.poll() : idleRules.poll();
+        }
+        if (performance == null) {
+            performance = performanceFactory.getObject();
+            int port = start(performance, harName != null);
+            performance.setProxy(performance.proxy(port));
+            synchronized (this) {
+                started.add(performance);
+            }
+            log.debug("Proxy started on port {}, {} proxies in pool", port, started.size());
+        }
+        if (harName != null) {
+            performance.newHar(harName);
+        }
+        return performance;
+    }
+
+    /**
+     * Return a proxy to the pool, rules and traffic not collected by a test are dropped
+     * @param performance PerformanceUtils leased
+     */
+    public void release(PerformanceUtils performance) {
+        performance.reset();
+        synchronized (this) {
+            Deque<PerformanceUtils> pool = performance.isCapturing() ? idle : idleRules;
+            if (started.contains(performance) && !pool.contains(performance)) {
+                pool.push(performance);
+            }
+        }
+    }
+
+    /**
+     * Stops all proxies of the pool
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        for (PerformanceUtils performance : started) {
+            performance.stopServer(performance.getServer());
+        }
+        started.clear();
+        idle.clear();
+        idleRules.clear();
+    }
+
+    /**
+     * Starts the proxy on a free port. The port can be taken by another process between probing and
+     * binding, so the start is retried on a new port when the bind fails
+     * @param performance PerformanceUtils
+     * @param capture boolean HAR capture
+     * @return int port of the proxy
+     * @throws Exception
+     */
+    private int start(PerformanceUtils performance, boolean capture) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            int port = freePort();
+            try {
+                performance.proxyServer(port, capture);
+                return port;
+            } catch (Exception e) {
+                if (attempt >= PORT_ATTEMPTS || !bindFailure(e)) {
+                    throw e;
+                }
+                log.debug("Port {} taken before the proxy started, retrying on another port", port);
+            }
+        }
+    }
+
+    private static boolean bindFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BindException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Free local port assigned by the OS
+     * @return int port
+     * @throws IOException
+     */
+    private int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        }
+    }
+}
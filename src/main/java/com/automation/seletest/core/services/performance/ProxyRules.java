@@ -0,0 +1,172 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import net.lightbody.bmp.proxy.ProxyServer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Rules of a proxy for a @Test. Every rule is a whitespace separated string, patterns are
+ * regular expressions that must match the whole URL:
+ * <ul>
+ * <li>block &lt;pattern&gt; [status] - answer matching requests with status (default 204)</li>
+ * <li>stub &lt;pattern&gt; &lt;fixture&gt; - serve matching requests from a classpath or file fixture</li>
+ * <li>throttle &lt;downstream kbps&gt; &lt;upstream kbps&gt; [latency ms] - limit bandwidth and add latency</li>
+ * </ul>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public final class ProxyRules {
+
+    private ProxyRules() {}
+
+    /**Attribute of a test result whose proxy rules could not be applied*/
+    public static final String FAILURE = "proxyRulesFailure";
+
+    /**
+     * Replaces the rules of a proxy. Fixtures are registered before any rule changes, if a rule
+     * cannot be applied the proxy is left without rules
+     * @param server ProxyServer
+     * @param fixtures FixtureServer for stub rules
+     * @param rules String[] rules
+     * @throws IOException if a fixture cannot be read
+     */
+    public static void apply(ProxyServer server, FixtureServer fixtures, String[] rules) throws IOException {
+        validate(rules);
+        Map<String, String> stubs = new HashMap<>();
+        for (String rule : rules) {
+            String[] parts = rule.trim().split("\\s+");
+            if (parts[0].equalsIgnoreCase("stub")) {
+                stubs.put(parts[2], fixtures.register(parts[2]));
+            }
+        }
+        clear(server);
+        try {
+            applyRules(server, stubs, rules);
+        } catch (RuntimeException e) {
+            clear(server);
+            throw e;
+        }
+    }
+
+    private static void applyRules(ProxyServer server, Map<String, String> stubs, String[] rules) {
+        for (String rule : rules) {
+            String[] parts = rule.trim().split("\\s+");
+            switch (parts[0].toLowerCase()) {
+                case "block":
+                    server.blacklistRequests(parts[1], parts.length > 2 ? Integer.parseInt(parts[2]) : 204);
+                    break;
+                case "stub":
+                    server.rewriteUrl(parts[1], stubs.get(parts[2]));
+                    break;
+                case "throttle":
+                    server.setDownstreamKbps(Long.parseLong(parts[1]));
+                    server.setUpstreamKbps(Long.parseLong(parts[2]));
+                    if (parts.length > 3) {
+                        server.setLatency(Long.parseLong(parts[3]));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown proxy rule: " + rule);
+            }
+            log.debug("Proxy rule applied: {}", rule);
+        }
+    }
+
+    /**
+     * Checks the syntax of rules and that the fixtures of stub rules exist before they are applied
+     * @param rules String[] rules
+     * @throws IllegalArgumentException naming every invalid rule
+     */
+    public static void validate(String[] rules) {
+        StringBuilder errors = new StringBuilder();
+        for (String rule : rules) {
+            String error = error(rule.trim().split("\\s+"));
+            if (error != null) {
+                errors.append(errors.length() > 0 ? "; " : "").append('\'').append(rule).append("': ").append(error);
+            }
+        }
+        if (errors.length() > 0) {
+            throw new IllegalArgumentException("Invalid proxy rules: " + errors);
+        }
+    }
+
+    private static String error(String[] parts) {
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "block":
+                    if (parts.length < 2 || parts.length > 3) {
+                        return "expected block <pattern> [status]";
+                    }
+                    Pattern.compile(parts[1]);
+                    if (parts.length > 2) {
+                        Integer.parseInt(parts[2]);
+                    }
+                    return null;
+                case "stub":
+                    if (parts.length != 3) {
+                        return "expected stub <pattern> <fixture>";
+                    }
+                    Pattern.compile(parts[1]);
+                    return FixtureServer.exists(parts[2]) ? null : "fixture not found in classpath or file system";
+                case "throttle":
+                    if (parts.length < 3 || parts.length > 4) {
+                        return "expected throttle <downstream kbps> <upstream kbps> [latency ms]";
+                    }
+                    for (int i = 1; i < parts.length; i++) {
+                        Long.parseLong(parts[i]);
+                    }
+                    return null;
+                default:
+                    return "unknown rule, expected block, stub or throttle";
+            }
+        } catch (NumberFormatException e) {
+            return "not a number " + e.getMessage();
+        } catch (PatternSyntaxException e) {
+            return "invalid pattern " + e.getDescription();
+        }
+    }
+
+    /**
+     * Removes all rules of a proxy, 0 disables bandwidth and latency limits
+     * @param server ProxyServer
+     */
+    public static void clear(ProxyServer server) {
+        server.clearBlacklist();
+        server.clearRewriteRules();
+        server.setDownstreamKbps(0);
+        server.setUpstreamKbps(0);
+        server.setLatency(0);
+    }
+}
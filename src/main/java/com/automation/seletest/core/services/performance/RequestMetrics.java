@@ -0,0 +1,130 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import net.lightbody.bmp.core.har.HarEntry;
+import net.lightbody.bmp.core.har.HarTimings;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Timing aggregates of proxied requests, computed while entries are streamed.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class RequestMetrics {
+
+    /**Phases of a request as reported in HAR timings*/
+    private static final String[] PHASES = {"blocked", "dns", "connect", "send", "wait", "receive"};
+
+    private long requests;
+    private long errors;
+    private long bytes;
+    private long totalTime;
+    private long maxTime;
+    private String slowestUrl;
+    private final long[] phases = new long[PHASES.length];
+    private final Map<String, long[]> byType = new TreeMap<>();
+
+    /**
+     * Adds a HAR entry to the aggregates
+     * @param entry HarEntry
+     */
+    public synchronized void add(HarEntry entry) {
+        requests++;
+        long time = entry.getTime();
+        totalTime += time;
+        if (time >= maxTime) {
+            maxTime = time;
+            slowestUrl = entry.getRequest().getUrl();
+        }
+        if (entry.getResponse() != null) {
+            if (entry.getResponse().getStatus() >= 400 || entry.getResponse().getStatus() <= 0) {
+                errors++;
+            }
+            long size = Math.max(0, entry.getResponse().getBodySize());
+            bytes += size;
+            String type = entry.getResponse().getContent() == null ? null : entry.getResponse().getContent().getMimeType();
+            type = type == null || type.isEmpty() ? "unknown" : type.split(";")[0].trim();
+            long[] stats = byType.get(type);
+            if (stats == null) {
+                stats = new long[3];
+                byType.put(type, stats);
+            }
+            stats[0]++;
+            stats[1] += time;
+            stats[2] += size;
+        }
+        HarTimings timings = entry.getTimings();
+        if (timings != null) {
+            long[] values = {millis(timings.getBlocked()), millis(timings.getDns()), millis(timings.getConnect()),
+                    millis(timings.getSend()), millis(timings.getWait()), millis(timings.getReceive())};
+            for (int i = 0; i < values.length; i++) {
+                phases[i] += values[i];
+            }
+        }
+    }
+
+    /**
+     * Aggregates as a JSON object
+     * @return String json
+     */
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"requests\":").append(requests)
+            .append(",\"errors\":").append(errors)
+            .append(",\"bytes\":").append(bytes)
+            .append(",\"totalTime\":").append(totalTime)
+            .append(",\"averageTime\":").append(requests == 0 ? 0 : totalTime / requests)
+            .append(",\"maxTime\":").append(maxTime)
+            .append(",\"slowestUrl\":").append(HarStreamSink.quote(slowestUrl))
+            .append(",\"phases\":{");
+        for (int i = 0; i < PHASES.length; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(PHASES[i]).append("\":").append(phases[i]);
+        }
+        json.append("},\"types\":{");
+        boolean first = true;
+        for (Map.Entry<String, long[]> type : byType.entrySet()) {
+            json.append(first ? "" : ",").append(HarStreamSink.quote(type.getKey()))
+                .append(":{\"requests\":").append(type.getValue()[0])
+                .append(",\"time\":").append(type.getValue()[1])
+                .append(",\"bytes\":").append(type.getValue()[2]).append('}');
+            first = false;
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Timing value of HAR entries, missing or negative values count as zero
+     * @param value Number timing
+     * @return long milliseconds
+     */
+    private static long millis(Object value) {
+        return value == null ? 0 : Math.max(0, ((Number) value).longValue());
+    }
+}
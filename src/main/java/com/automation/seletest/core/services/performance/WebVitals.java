@@ -0,0 +1,107 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client side performance metrics of one page load (navigation timing, paint, resources, LCP, CLS and long tasks).
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Getter
+public final class WebVitals {
+
+    /**
+     * Async script that reads all metrics of the current document in one execution.
+     * LCP, CLS and long tasks are read from buffered performance observers.
+     */
+    public static final String COLLECT_SCRIPT =
+            "var done=arguments[arguments.length-1], m={lcp:0,cls:0,longTasks:0,longTaskTime:0}, observers=[];" +
+            "function observe(type,fn){try{var o=new PerformanceObserver(function(l){l.getEntries().forEach(fn);});" +
+            " o.observe({type:type,buffered:true});observers.push(o);}catch(e){}}" +
+            "observe('largest-contentful-paint',function(e){m.lcp=Math.max(m.lcp,e.startTime);});" +
+            "observe('layout-shift',function(e){if(!e.hadRecentInput){m.cls+=e.value;}});" +
+            "observe('longtask',function(e){m.longTasks++;m.longTaskTime+=e.duration;});" +
+            "setTimeout(function(){" +
+            " observers.forEach(function(o){o.disconnect();});" +
+            " var n=performance.getEntriesByType('navigation')[0];" +
+            " if(n){m.ttfb=n.responseStart;m.domContentLoaded=n.domContentLoadedEventEnd;m.load=n.loadEventEnd;m.transferSize=n.transferSize||0;}" +
+            " performance.getEntriesByType('paint').forEach(function(p){m[p.name=='first-paint'?'fp':'fcp']=p.startTime;});" +
+            " var r=performance.getEntriesByType('resource'), size=0, end=0;" +
+            " r.forEach(function(e){size+=e.transferSize||0;end=Math.max(end,e.responseEnd);});" +
+            " m.resources=r.length;m.resourceSize=size;m.resourceEnd=end;" +
+            " done({url:document.URL,timeOrigin:performance.timeOrigin||performance.timing.navigationStart,metrics:m});" +
+            "},0);";
+
+    /**URL of the page*/
+    private final String url;
+
+    /**Start of the navigation, identifies the document*/
+    private final double timeOrigin;
+
+    /**Metrics by name*/
+    private final Map<String, Double> metrics;
+
+    public WebVitals(String url, double timeOrigin, Map<String, Double> metrics) {
+        this.url = url;
+        this.timeOrigin = timeOrigin;
+        this.metrics = Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Builds the metrics from the result of {@link #COLLECT_SCRIPT}
+     * @param result Object script result
+     * @return WebVitals or null if nothing was returned
+     */
+    @SuppressWarnings("unchecked")
+    public static WebVitals fromScriptResult(Object result) {
+        if (!(result instanceof Map)) {
+            return null;
+        }
+        Map<String, Object> map = (Map<String, Object>) result;
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        if (map.get("metrics") instanceof Map) {
+            for (Map.Entry<String, Object> metric : ((Map<String, Object>) map.get("metrics")).entrySet()) {
+                if (metric.getValue() instanceof Number) {
+                    metrics.put(metric.getKey(), ((Number) metric.getValue()).doubleValue());
+                }
+            }
+        }
+        Object origin = map.get("timeOrigin");
+        return new WebVitals(String.valueOf(map.get("url")), origin instanceof Number ? ((Number) origin).doubleValue() : 0, metrics);
+    }
+
+    @Override
+    public String toString() {
+        return url + " " + metrics;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per session collector of web vitals. Every document is kept once, a later
+ * collection of the same document replaces the earlier one.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class WebVitalsCollector {
+
+    /**Executor of the session*/
+    private final JavascriptExecutor executor;
+
+    /**Samples of the current test keyed by document*/
+    private final Map<String, WebVitals> samples = new LinkedHashMap<>();
+
+    public WebVitalsCollector(JavascriptExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Collects the metrics of the current document with one script
+     */
+    public synchronized void collect() {
+        try {
+            WebVitals vitals = WebVitals.fromScriptResult(executor.executeAsyncScript(WebVitals.COLLECT_SCRIPT));
+            if (vitals != null && vitals.getUrl().startsWith("http")) {
+                samples.put(vitals.getUrl() + "@" + (long) vitals.getTimeOrigin(), vitals);
+            }
+        } catch (WebDriverException ex) {
+            log.debug("Web vitals not collected: {}", ex.getMessage().split("\n")[0]);
+        }
+    }
+
+    /**
+     * Returns the samples collected so far and starts over
+     * @return List of WebVitals
+     */
+    public synchronized List<WebVitals> drain() {
+        List<WebVitals> collected = new ArrayList<>(samples.values());
+        samples.clear();
+        return collected;
+    }
+}
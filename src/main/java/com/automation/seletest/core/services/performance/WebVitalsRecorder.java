@@ -0,0 +1,150 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stores web vitals as time series per test and URL and compares them with
+ * the baselines of a local properties file.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Component
+@Slf4j
+public class WebVitalsRecorder {
+
+    /**Metrics compared with the baseline*/
+    private static final List<String> BUDGETS = Arrays.asList("ttfb", "domContentLoaded", "load", "fcp", "lcp", "cls", "longTaskTime");
+
+    @Autowired
+    Environment env;
+
+    /**Baselines loaded from file*/
+    private Properties baseline;
+
+    /**
+     * Appends the samples of a test to the history and checks them against the baselines.
+     * Metrics without baseline become the baseline. A baseline of 0 counts as no baseline and 0 values are not
+     * stored, since CLS is often 0 and LCP reads 0 when the page is collected before its first paint entry.
+     * @param test String name of the test
+     * @param samples List of WebVitals
+     * @return List of regression messages, empty if within budget
+     */
+    public synchronized List<String> record(String test, List<WebVitals> samples) {
+        List<String> regressions = new ArrayList<>();
+        if (samples.isEmpty()) {
+            return regressions;
+        }
+        double threshold = env.getProperty("vitals.threshold", Double.class, 0.2);
+        boolean update = env.getProperty("vitals.baseline.update", Boolean.class, false);
+        Properties baseline = baseline();
+        boolean changed = false;
+        File history = new File(env.getProperty("vitals.history.file", "./webvitals/history.csv"));
+        history.getAbsoluteFile().getParentFile().mkdirs();
+        try (Writer out = new FileWriter(history, true)) {
+            long now = System.currentTimeMillis();
+            for (WebVitals sample : samples) {
+                String url = sample.getUrl().split("[?#]")[0];
+                for (Map.Entry<String, Double> metric : sample.getMetrics().entrySet()) {
+                    out.write(now + "," + test + "," + url + "," + metric.getKey() + "," + metric.getValue() + "\n");
+                    if (!BUDGETS.contains(metric.getKey())) {
+                        continue;
+                    }
+                    String key = test + "|" + url + "|" + metric.getKey();
+                    String stored = baseline.getProperty(key);
+                    if (stored == null || update || Double.parseDouble(stored) <= 0) {
+                        if (metric.getValue() > 0) {
+                            baseline.setProperty(key, String.valueOf(metric.getValue()));
+                            changed = true;
+                        }
+                    } else if (regressed(metric.getKey(), Double.parseDouble(stored), metric.getValue(), threshold)) {
+                        regressions.add(String.format("%s on %s: %.2f exceeds baseline %.2f by more than %.0f%%",
+                                metric.getKey(), url, metric.getValue(), Double.parseDouble(stored), threshold * 100));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Cannot write web vitals history: {}", e.getMessage());
+        }
+        if (changed) {
+            store(baseline);
+        }
+        return regressions;
+    }
+
+    /**
+     * A metric regressed when it exceeds the baseline by the threshold and by a minimum
+     * absolute delta that absorbs noise (0.01 for CLS, 50ms for timings)
+     */
+    private boolean regressed(String metric, double base, double value, double threshold) {
+        double floor = metric.equals("cls") ? 0.01 : 50;
+        return value > base * (1 + threshold) && value - base > floor;
+    }
+
+    private Properties baseline() {
+        if (baseline == null) {
+            baseline = new Properties();
+            File file = new File(env.getProperty("vitals.baseline.file", "./webvitals/baseline.properties"));
+            if (file.exists()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    baseline.load(in);
+                } catch (IOException e) {
+                    log.error("Cannot read web vitals baseline: {}", e.getMessage());
+                }
+            }
+        }
+        return baseline;
+    }
+
+    private void store(Properties baseline) {
+        File file = new File(env.getProperty("vitals.baseline.file", "./webvitals/baseline.properties"));
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            baseline.store(out, "Seletest web vitals baselines (test|url|metric)");
+        } catch (IOException e) {
+            log.error("Cannot write web vitals baseline: {}", e.getMessage());
+        }
+    }
+}
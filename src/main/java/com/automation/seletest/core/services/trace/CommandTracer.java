@@ -0,0 +1,172 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CommandExecutor that records every WebDriver command of a session before delegating
+ * to the executor of the driver.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class CommandTracer implements CommandExecutor {
+
+    /**Page object methods in progress per thread*/
+    private static final ThreadLocal<Deque<String>> steps = new ThreadLocal<Deque<String>>() {
+        @Override
+        protected Deque<String> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
+    /**The executor of the driver*/
+    private final CommandExecutor delegate;
+
+    /**Recorded commands*/
+    private final List<TraceRecord> records = new ArrayList<>();
+
+    public CommandTracer(CommandExecutor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wraps the command executor of the driver with a tracer
+     * @param driver RemoteWebDriver
+     * @return CommandTracer installed
+     */
+    public static CommandTracer install(RemoteWebDriver driver) {
+        CommandTracer tracer = new CommandTracer(driver.getCommandExecutor());
+        try {
+            Method setter = RemoteWebDriver.class.getDeclaredMethod("setCommandExecutor", CommandExecutor.class);
+            setter.setAccessible(true);
+            setter.invoke(driver, tracer);
+        } catch (Exception e) {
+            throw new WebDriverException("Cannot install command tracer: " + e.getMessage(), e);
+        }
+        log.debug("Command tracer installed for session {}", driver.getSessionId());
+        return tracer;
+    }
+
+    /**
+     * Marks the start of a page object method for the current thread
+     * @param step String name of the method
+     */
+    public static void enterStep(String step) {
+        steps.get().push(step);
+    }
+
+    /**
+     * Marks the end of the current page object method
+     */
+    public static void exitStep() {
+        steps.get().poll();
+    }
+
+    @Override
+    public Response execute(Command command) throws IOException {
+        long start = System.currentTimeMillis();
+        long begin = System.nanoTime();
+        Response response = null;
+        try {
+            response = delegate.execute(command);
+            return response;
+        } finally {
+            long duration = (System.nanoTime() - begin) / 1000;
+            Object value = response == null ? null : response.getValue();
+            String step = steps.get().peek();
+            TraceRecord record = new TraceRecord(command.getName(), locator(command.getParameters()), step == null ? "" : step,
+                    start, duration, size(command.getParameters()), size(value));
+            synchronized (records) {
+                records.add(record);
+            }
+        }
+    }
+
+    /**
+     * Returns the commands recorded so far and starts a new trace
+     * @return List of TraceRecord
+     */
+    public List<TraceRecord> drain() {
+        synchronized (records) {
+            List<TraceRecord> trace = new ArrayList<>(records);
+            records.clear();
+            return trace;
+        }
+    }
+
+    /**
+     * Size of a command parameter or response value without rendering it: the length of String and byte[] values,
+     * summed over the values of a map, other values count as 0
+     * @param value Object parameters or response value
+     * @return int size
+     */
+    private static int size(Object value) {
+        if (value instanceof String) {
+            return ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else if (value instanceof Map) {
+            int size = 0;
+            for (Object entry : ((Map<?, ?>) value).values()) {
+                if (entry instanceof String || entry instanceof byte[]) {
+                    size += size(entry);
+                }
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    /**
+     * Locator of find commands in the form using=value
+     * @param parameters Map command parameters
+     * @return String locator or empty
+     */
+    private String locator(Map<String, ?> parameters) {
+        if (parameters.containsKey("using")) {
+            return parameters.get("using") + "=" + parameters.get("value");
+        } else if (parameters.containsKey("id")) {
+            return "element=" + parameters.get("id");
+        }
+        return "";
+    }
+}
@@ -0,0 +1,148 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline analyzer of trace files. Reports the slowest commands, round-trips per page object step
+ * and idle gaps between commands.
+ * <p>Usage: TraceAnalyzer &lt;trace file or directory&gt; [top] [gap threshold ms]</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class TraceAnalyzer {
+
+    /**Number of slowest commands to report*/
+    private final int top;
+
+    /**Minimum idle time between commands to report in ms*/
+    private final long gapThreshold;
+
+    public TraceAnalyzer(int top, long gapThreshold) {
+        this.top = top;
+        this.gapThreshold = gapThreshold;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: TraceAnalyzer <trace file or directory> [top] [gap threshold ms]");
+            return;
+        }
+        TraceAnalyzer analyzer = new TraceAnalyzer(args.length > 1 ? Integer.parseInt(args[1]) : 10,
+                args.length > 2 ? Long.parseLong(args[2]) : 500);
+        File source = new File(args[0]);
+        File[] files = source.isDirectory() ? source.listFiles() : new File[]{source};
+        for (File file : files) {
+            if (file.isFile() && file.getName().endsWith(".trace")) {
+                analyzer.report(file.getName(), TraceFile.read(file), System.out);
+            }
+        }
+    }
+
+    /**
+     * Prints the report of a trace
+     * @param name String name of the trace
+     * @param trace List of TraceRecord
+     * @param out PrintStream
+     */
+    public void report(String name, List<TraceRecord> trace, PrintStream out) {
+        out.println("==== " + name + " ====");
+        if (trace.isEmpty()) {
+            out.println("No commands recorded");
+            return;
+        }
+        long busy = 0;
+        for (TraceRecord record : trace) {
+            busy += record.getDuration() / 1000;
+        }
+        long total = trace.get(trace.size() - 1).getEnd() - trace.get(0).getStart();
+        out.println(String.format("Commands: %d, wall time: %dms, in WebDriver: %dms", trace.size(), total, busy));
+
+        out.println("-- Slowest commands");
+        for (TraceRecord record : slowest(trace)) {
+            out.println("  " + record);
+        }
+
+        out.println("-- Round-trips per step");
+        for (Map.Entry<String, long[]> step : steps(trace).entrySet()) {
+            out.println(String.format("  %s: %d commands, %dms", step.getKey(), step.getValue()[0], step.getValue()[1] / 1000));
+        }
+
+        out.println("-- Idle gaps over " + gapThreshold + "ms");
+        for (int i = 1; i < trace.size(); i++) {
+            long gap = trace.get(i).getStart() - trace.get(i - 1).getEnd();
+            if (gap >= gapThreshold) {
+                out.println(String.format("  %dms before %s (after %s)", gap, trace.get(i), trace.get(i - 1).getCommand()));
+            }
+        }
+    }
+
+    /**
+     * Slowest commands of a trace
+     * @param trace List of TraceRecord
+     * @return List of TraceRecord sorted by duration
+     */
+    public List<TraceRecord> slowest(List<TraceRecord> trace) {
+        List<TraceRecord> sorted = new ArrayList<>(trace);
+        Collections.sort(sorted, new Comparator<TraceRecord>() {
+            @Override
+            public int compare(TraceRecord a, TraceRecord b) {
+                return Long.compare(b.getDuration(), a.getDuration());
+            }
+        });
+        return sorted.subList(0, Math.min(top, sorted.size()));
+    }
+
+    /**
+     * Number of commands and total duration in microseconds per page object step
+     * @param trace List of TraceRecord
+     * @return Map of step to {commands, duration}
+     */
+    public Map<String, long[]> steps(List<TraceRecord> trace) {
+        Map<String, long[]> steps = new LinkedHashMap<>();
+        for (TraceRecord record : trace) {
+            String step = record.getStep().isEmpty() ? "<no page object>" : record.getStep();
+            long[] stats = steps.get(step);
+            if (stats == null) {
+                stats = new long[2];
+                steps.put(step, stats);
+            }
+            stats[0]++;
+            stats[1] += record.getDuration();
+        }
+        return steps;
+    }
+}
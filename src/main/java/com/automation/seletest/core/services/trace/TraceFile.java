@@ -0,0 +1,161 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary trace file format. Strings are written once and then referenced by index,
+ * numbers are variable length and start times are deltas from the previous command.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public final class TraceFile {
+
+    /**Magic number of trace files (SLTR)*/
+    private static final int MAGIC = 0x534C5452;
+
+    /**Version of the format*/
+    private static final int VERSION = 1;
+
+    private TraceFile() {}
+
+    /**
+     * Writes a trace to file
+     * @param file File trace file
+     * @param trace List of TraceRecord
+     * @throws IOException
+     */
+    public static void write(File file, List<TraceRecord> trace) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVar(out, trace.size());
+            Map<String, Integer> strings = new HashMap<>();
+            long previous = trace.isEmpty() ? 0 : trace.get(0).getStart();
+            out.writeLong(previous);
+            for (TraceRecord record : trace) {
+                writeString(out, strings, record.getCommand());
+                writeString(out, strings, record.getLocator());
+                writeString(out, strings, record.getStep());
+                writeVar(out, zigZag(record.getStart() - previous));
+                writeVar(out, record.getDuration());
+                writeVar(out, record.getRequestSize());
+                writeVar(out, record.getResponseSize());
+                previous = record.getStart();
+            }
+        }
+    }
+
+    /**
+     * Reads a trace from file
+     * @param file File trace file
+     * @return List of TraceRecord
+     * @throws IOException
+     */
+    public static List<TraceRecord> read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a trace file: " + file);
+            }
+            int size = (int) readVar(in);
+            List<TraceRecord> trace = new ArrayList<>(size);
+            List<String> strings = new ArrayList<>();
+            long previous = in.readLong();
+            for (int i = 0; i < size; i++) {
+                String command = readString(in, strings);
+                String locator = readString(in, strings);
+                String step = readString(in, strings);
+                long start = previous + unZigZag(readVar(in));
+                trace.add(new TraceRecord(command, locator, step, start, readVar(in), (int) readVar(in), (int) readVar(in)));
+                previous = start;
+            }
+            return trace;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> strings, String value) throws IOException {
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVar(out, index);
+        } else {
+            writeVar(out, strings.size());
+            out.writeUTF(value);
+            strings.put(value, strings.size());
+        }
+    }
+
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int index = (int) readVar(in);
+        if (index == strings.size()) {
+            strings.add(in.readUTF());
+        }
+        return strings.get(index);
+    }
+
+    private static void writeVar(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVar(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length number");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
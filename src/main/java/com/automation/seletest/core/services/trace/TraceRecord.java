@@ -0,0 +1,82 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.trace;
+
+import lombok.Getter;
+
+/**
+ * Single WebDriver command of a trace.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Getter
+public class TraceRecord {
+
+    /**The WebDriver command name*/
+    private final String command;
+
+    /**The locator of the command or empty*/
+    private final String locator;
+
+    /**The page object method that issued the command or empty*/
+    private final String step;
+
+    /**Start of the command in epoch milliseconds*/
+    private final long start;
+
+    /**Duration of the command in microseconds*/
+    private final long duration;
+
+    /**Size of the String and byte[] command parameters*/
+    private final int requestSize;
+
+    /**Size of a String or byte[] command response, 0 for other values*/
+    private final int responseSize;
+
+    public TraceRecord(String command, String locator, String step, long start, long duration, int requestSize, int responseSize) {
+        this.command = command;
+        this.locator = locator;
+        this.step = step;
+        this.start = start;
+        this.duration = duration;
+        this.requestSize = requestSize;
+        this.responseSize = responseSize;
+    }
+
+    /**
+     * End of the command in epoch milliseconds
+     * @return long end
+     */
+    public long getEnd() {
+        return start + duration / 1000;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s [%s] %.1fms req:%d resp:%d", command, locator, step, duration / 1000.0, requestSize, responseSize);
+    }
+}
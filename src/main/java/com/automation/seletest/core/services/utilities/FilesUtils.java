@@ -28,28 +28,25 @@ package com.automation.seletest.core.services.utilities;
 
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Date;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
-import jxl.Cell;
-import jxl.Sheet;
-import jxl.Workbook;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.testng.Reporter;
 import org.testng.SkipException;
 
-import au.com.bytecode.opencsv.CSVReader;
-
 import com.automation.seletest.core.services.annotations.DataSource;
+import com.automation.seletest.core.services.data.DataCache;
+import com.automation.seletest.core.services.data.DataStore;
 
 /**
  * This class operates as a service for reading properties from various input types
@@ -59,6 +56,17 @@ import com.automation.seletest.core.services.annotations.DataSource;
 @Service("fileHandlingService")
 public class FilesUtils {
 
+    /** Compiled data sources*/
+    @Autowired
+    DataStore dataStore;
+
+    /** Parsed data sources*/
+    @Autowired
+    DataCache dataCache;
+
+    /** Data source paths resolved per test method*/
+    private final Map<Method, String> dataPaths = new ConcurrentHashMap<>();
+
     /** Constant for html template*/
     private final String HTML_TEMPLATE="template.html";
 
@@ -68,17 +76,11 @@ public class FilesUtils {
      * @return HashMap<String, String> with the stored data
      * @throws IOException
      */
-    @SuppressWarnings({ "unused", "resource" })
     private HashMap<String, String> readcsvData(String filepath) {
         HashMap<String, String> parametersCSV=new HashMap<>();
-        CSVReader reader;
         try {
-            reader = new CSVReader(new FileReader(filepath));
-            String [] nextLine;
-            int i=0;
-            while ((nextLine = reader.readNext()) != null) {
-                parametersCSV.put(nextLine[0], nextLine[1]);
-                i++;
+            for(String[] row : dataStore.table(filepath)) {
+                parametersCSV.put(row[0], row.length > 1 ? row[1] : "");
             }
             log.debug("CSV test data set from file {}",filepath);
         } catch (Exception e) {
@@ -114,32 +116,44 @@ public class FilesUtils {
     }
 
     /**
-     * Read data from various external sources and return to a Map
+     * Read data from various external sources and return to a Map.
+     * Parsed data is shared by all methods and threads until the file changes
      * @param method
      * @return
      */
     public Map<String, String> readData(final Method method) {
 
-        String inputFile=null;
-        DataSource testData=null;
-        Map<String, String> data = new HashMap<String, String>();
-
-        if(method.isAnnotationPresent(DataSource.class) && method.getAnnotation(DataSource.class).filePath() !=""){
-            testData=method.getAnnotation(DataSource.class);
-        } else if(method.getDeclaringClass().isAnnotationPresent(DataSource.class) && method.getDeclaringClass().getAnnotation(DataSource.class).filePath()!=""){
-            testData=method.getDeclaringClass().getAnnotation(DataSource.class);
-        } else {
-            throw new SkipException("The path to the file is undefined!!!");
+        String inputFile=dataPaths.get(method);
+        if(inputFile==null) {
+            DataSource testData=null;
+            if(method.isAnnotationPresent(DataSource.class) && method.getAnnotation(DataSource.class).filePath() !=""){
+                testData=method.getAnnotation(DataSource.class);
+            } else if(method.getDeclaringClass().isAnnotationPresent(DataSource.class) && method.getDeclaringClass().getAnnotation(DataSource.class).filePath()!=""){
+                testData=method.getDeclaringClass().getAnnotation(DataSource.class);
+            } else {
+                throw new SkipException("The path to the file is undefined!!!");
+            }
+            inputFile=new File(testData.filePath()).getAbsolutePath();
+            dataPaths.put(method, inputFile);
         }
 
-        inputFile=new File(testData.filePath()).getAbsolutePath();
-
-        if(inputFile.endsWith(".properties")) {
-            data=readDataFromProperties(inputFile);
-        } else if(inputFile.endsWith(".csv")) {
-            data=readcsvData(inputFile);
+        final String source=inputFile;
+        if(!source.endsWith(".properties") && !source.endsWith(".csv")) {
+            return new HashMap<String, String>();
+        }
+        try {
+            return dataCache.get(source, new Callable<Map<String, String>>() {
+                @Override
+                public Map<String, String> call() {
+                    return source.endsWith(".properties") ? readDataFromProperties(source) : readcsvData(source);
+                }
+            });
+        } catch (SkipException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Exception during loading test data sources: "+e);
+            throw new SkipException("Data not loaded for test execution!!!");
         }
-        return data;
     }
 
     /**
@@ -148,18 +162,13 @@ public class FilesUtils {
      * @return
      */
     private Map<String, String> readDataFromProperties(String inputFile){
-        Properties prop=new Properties();
         Map<String, String> map = new HashMap<String, String>();
         try {
-            prop.load(new FileReader(inputFile));
-            Enumeration<?> keys = prop.propertyNames();
-            while(keys.hasMoreElements()){
-                String key = (String)keys.nextElement();
-                String value = (String) prop.get(key);
-                if(!value.isEmpty()){
-                    map.put(key,prop.getProperty(key));
+            for(String[] row : dataStore.table(inputFile)) {
+                if(!row[1].isEmpty()){
+                    map.put(row[0],row[1]);
                 } else {
-                    log.error("No value specified for key: "+key);
+                    log.error("No value specified for key: "+row[0]);
                 }
             }
             log.debug("Test properties set from file {}",inputFile);
@@ -180,26 +189,8 @@ public class FilesUtils {
     public String[][] getTableArray(String xlFilePath, String sheetName, String tableName){
         String[][] tabArray=null;
         try{
-            Workbook workbook = Workbook.getWorkbook(new File(xlFilePath));
-            Sheet sheet = workbook.getSheet(sheetName);
-            int startRow,startCol, endRow, endCol,ci,cj;
-            Cell tableStart=sheet.findCell(tableName);
-            startRow=tableStart.getRow();
-            startCol=tableStart.getColumn();
-            Cell tableEnd= sheet.findCell(tableName, startCol+1,startRow+1, 100, 64000,  false);
-            endRow=tableEnd.getRow();
-            endCol=tableEnd.getColumn();
-            tabArray=new String[endRow-startRow-1][endCol-startCol-1];
-            ci=0;
-
-            for (int i=startRow+1;i<endRow;i++,ci++){
-                cj=0;
-                for (int j=startCol+1;j<endCol;j++,cj++){
-                    tabArray[ci][cj]=sheet.getCell(j,i).getContents();
-                }
-            }
+            tabArray=dataStore.table(xlFilePath, sheetName, tableName).toArray();
             log.debug("Excel table read for file: {}",xlFilePath);
-
         }
         catch (Exception e)    {
             log.error("Exception during reading from Excel file occured: "+e);
@@ -27,6 +27,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.automation.seletest.core.services.utilities;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
@@ -37,10 +38,17 @@ import net.lightbody.bmp.core.har.Har;
 import net.lightbody.bmp.proxy.ProxyServer;
 
 import org.openqa.selenium.Proxy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import com.automation.seletest.core.services.performance.HarBodyLimit;
+import com.automation.seletest.core.services.performance.HarStreamSink;
+import com.automation.seletest.core.services.performance.ProxyRules;
+import com.automation.seletest.core.services.performance.RequestMetrics;
+
 /**
  * Performance class
  * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
@@ -55,6 +63,15 @@ public class PerformanceUtils {
     @Getter @Setter Proxy proxy;
     @Getter @Setter Har har;
 
+    /**Sink streaming HAR entries to disk, null when the whole HAR is kept in memory*/
+    @Getter HarStreamSink harSink;
+
+    @Autowired
+    Environment env;
+
+    /**True if the proxy records HAR data, false for proxies used only for rules*/
+    @Getter boolean capturing;
+
     /**
      * Starts the proxy server
      * @param port
@@ -62,11 +79,33 @@ public class PerformanceUtils {
      * @throws Exception
      */
     public ProxyServer proxyServer(int port) throws Exception{
+        return proxyServer(port, true);
+    }
+
+    /**
+     * Starts the proxy server
+     * @param port
+     * @param capture false to start a proxy without HAR capture (request rules only)
+     * @return
+     * @throws Exception
+     */
+    public ProxyServer proxyServer(int port, boolean capture) throws Exception{
         ProxyServer server = new ProxyServer(port);
         server.start();
-        server.setCaptureHeaders(true);
-        server.setCaptureContent(true);
         this.server=server;
+        this.capturing=capture;
+        if(!capture) {
+            return server;
+        }
+        int bodyLimit=env.getProperty("har.body.limit", Integer.class, -1);
+        server.setCaptureHeaders(true);
+        server.setCaptureContent(bodyLimit!=0);
+        if(env.getProperty("har.streaming", Boolean.class, false)) {
+            harSink=new HarStreamSink(bodyLimit);
+            server.addResponseInterceptor(harSink);
+        } else if(bodyLimit>0) {
+            server.addResponseInterceptor(new HarBodyLimit(bodyLimit));
+        }
         return server;
     }
 
@@ -99,14 +138,32 @@ public class PerformanceUtils {
      * @throws IOException
      */
     public void writePerformanceData(String path, Har harFile){
-        try{
-            FileOutputStream fos = new FileOutputStream(path);
+        try(FileOutputStream fos = new FileOutputStream(path)){
             harFile.writeTo(fos);}
         catch(Exception ex){
             log.error("Cannot write to external file: {}",ex.getMessage());
         }
     }
 
+    /**
+     * Writes performance data of a test, streamed entries are moved to path.ndjson
+     * and the whole HAR is only built when streaming is disabled
+     * @param path the path of the har file without extension
+     * @return RequestMetrics of streamed entries or null
+     */
+    public RequestMetrics collectPerformanceData(String path){
+        if(harSink==null) {
+            writePerformanceData(path+".har", getPerformanceData(server));
+            return null;
+        }
+        try {
+            return harSink.finish(new File(path+".ndjson"));
+        } catch (IOException e) {
+            log.error("Cannot write streamed har to external file: {}",e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Stops proxy server
      * @param server
@@ -115,6 +172,9 @@ public class PerformanceUtils {
      */
     public PerformanceUtils stopServer(ProxyServer server){
         try {
+            if(harSink!=null) {
+                harSink.close();
+            }
             server.stop();
         } catch (Exception e) {
            log.error("Exception while trying to stop proxy server {}",e.getMessage());
@@ -122,6 +182,22 @@ public class PerformanceUtils {
         return this;
     }
 
+    /**
+     * Drops rules and traffic captured since the last collection, keeping the proxy running
+     * @return The instance of the class
+     */
+    public PerformanceUtils reset(){
+        ProxyRules.clear(server);
+        if(!capturing) {
+            return this;
+        }
+        if(harSink!=null) {
+            harSink.close();
+        }
+        server.newHar("idle");
+        return this;
+    }
+
     /**
      * Creates new har
      * @param name The name of the har file
@@ -96,6 +96,9 @@ public class AsyncSeletestExecutor<T> implements AsyncTaskExecutor {
             throw new RejectedExecutionException(String.format("Reject any other verification task due to hard assertion error ----> %s ",e
                     .getMessage()));
 
+        } catch (RejectedExecutionException e) {
+            log.error("Verification task {} not executed, thread pool saturated: {}", task, e.getMessage());
+            throw e;
         }
         return futureTask;
     }
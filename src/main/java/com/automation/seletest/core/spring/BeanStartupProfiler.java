@@ -0,0 +1,156 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Records the time spent creating each bean, from instantiation to the end of initialization.
+ * Exclusive time leaves out the dependencies created meanwhile. When the context is refreshed the
+ * slowest beans are logged and all of them are written to target/startup-report.csv; beans created
+ * later, on first use or per test (prototypes), are only logged as they are created and not kept.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class BeanStartupProfiler extends InstantiationAwareBeanPostProcessorAdapter implements ApplicationListener<ContextRefreshedEvent> {
+
+    /**Number of beans logged at refresh*/
+    private static final int TOP = 10;
+
+    /**Beans under creation per thread*/
+    private final ThreadLocal<Deque<Frame>> creating = new ThreadLocal<Deque<Frame>>() {
+        @Override
+        protected Deque<Frame> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
+    /**Created beans*/
+    private final List<Frame> created = Collections.synchronizedList(new ArrayList<Frame>());
+
+    private volatile boolean refreshed;
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+        creating.get().push(new Frame(beanName, System.nanoTime()));
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Deque<Frame> stack = creating.get();
+        Frame frame = null;
+        for (Frame candidate : stack) {
+            if (candidate.name.equals(beanName)) {
+                frame = candidate;
+                break;
+            }
+        }
+        if (frame == null) {
+            return bean;
+        }
+        while (stack.pop() != frame) {
+            // frames of beans whose creation failed
+        }
+        frame.inclusive = System.nanoTime() - frame.start;
+        if (!stack.isEmpty()) {
+            stack.peek().children += frame.inclusive;
+        }
+        if (refreshed) {
+            log.debug("Bean {} created on first use in {}ms", beanName, frame.inclusive / 1000000);
+        } else {
+            created.add(frame);
+        }
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        refreshed = true;
+        List<Frame> beans;
+        synchronized (created) {
+            beans = new ArrayList<>(created);
+            created.clear();
+        }
+        Collections.sort(beans, new Comparator<Frame>() {
+            @Override
+            public int compare(Frame a, Frame b) {
+                return Long.compare(b.exclusive(), a.exclusive());
+            }
+        });
+        StringBuilder top = new StringBuilder();
+        for (int i = 0; i < Math.min(TOP, beans.size()); i++) {
+            top.append(beans.get(i).name).append('=').append(beans.get(i).exclusive() / 1000000).append("ms ");
+        }
+        log.info("{} beans created at startup, slowest: {}", beans.size(), top);
+        File report = new File("./target/startup-report.csv");
+        report.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(new FileWriter(report))) {
+            out.println("bean,inclusiveMs,exclusiveMs");
+            for (Frame bean : beans) {
+                out.println(bean.name + "," + bean.inclusive / 1000000.0 + "," + bean.exclusive() / 1000000.0);
+            }
+        } catch (IOException e) {
+            log.warn("Startup report not written: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bean under creation
+     */
+    private static class Frame {
+        final String name;
+        final long start;
+        long inclusive;
+        long children;
+
+        Frame(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        long exclusive() {
+            return inclusive - children;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Lazy initialization mode for framework beans that a suite may never use (JMX, memory
+ * warnings, mail, RestTemplate, EhCache and the DB context). With startup.lazy=true the beans
+ * listed in startup.lazy.beans are created on first use; beans nobody asks for, like the memory warning
+ * service and the JMX connector server, are not created at all. The MBean exporter is not lazy by default,
+ * so the managed beans are still exported; adding it to startup.lazy.beans turns JMX export off.
+ * Contexts whose environment does not hold core.properties (db-context.xml) set the locations to read it from,
+ * system properties still take precedence.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class LazyInitPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    /**Framework beans that are lazy by default in lazy mode*/
+    public static final String DEFAULT_BEANS = "memoryWarningService,memoryMxBean,rmiRegistry,seletestJmxServer,clientConnector,"
+            + "mailSender,preConfiguredMessage,restTemplate,seleniumEhcache,seleniumCacheManager,dataSource,sessionFactory,transactionManager";
+
+    private Environment env;
+
+    /**Properties files read for the settings the environment does not define (contexts without core.properties)*/
+    private Resource[] locations = new Resource[0];
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.env = environment;
+    }
+
+    public void setLocations(Resource... locations) {
+        this.locations = locations;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        Properties fallback = new Properties();
+        for (Resource location : locations) {
+            try {
+                fallback.putAll(PropertiesLoaderUtils.loadProperties(location));
+            } catch (IOException e) {
+                log.warn("Startup settings not read from {}: {}", location, e.getMessage());
+            }
+        }
+        if (!Boolean.parseBoolean(property("startup.lazy", fallback, "false"))) {
+            return;
+        }
+        for (String name : StringUtils.commaDelimitedListToStringArray(property("startup.lazy.beans", fallback, DEFAULT_BEANS))) {
+            name = name.trim();
+            if (beanFactory.containsBeanDefinition(name)) {
+                beanFactory.getBeanDefinition(name).setLazyInit(true);
+                log.debug("Bean {} is initialized on first use", name);
+            }
+        }
+    }
+
+    private String property(String key, Properties fallback, String defaultValue) {
+        String value = env != null ? env.getProperty(key) : null;
+        return value != null ? value : fallback.getProperty(key, defaultValue);
+    }
+
+    /**
+     * @param env Environment
+     * @return true if lazy initialization mode is on
+     */
+    public static boolean isLazy(Environment env) {
+        return env != null && Boolean.parseBoolean(env.getProperty("startup.lazy", "false"));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ThreadPoolTaskExecutor with a back-pressure policy for saturation and metrics exported over JMX:
+ * queue depth, active threads, rejections, tasks run by the caller and time spent by tasks in the queue.
+ * <ul>
+ * <li>abort: rejects the task with a TaskRejectedException</li>
+ * <li>caller-runs: the submitting thread runs the task</li>
+ * <li>blocking: the submitting thread waits up to blockSeconds for room in the queue, then the task is rejected</li>
+ * </ul>
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@ManagedResource(objectName = MonitoredTaskExecutor.MBEAN_NAME, description = "Saturation metrics of the Seletest thread pool")
+public class MonitoredTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private static final long serialVersionUID = 1L;
+
+    /**MBean name*/
+    public static final String MBEAN_NAME = "seletest.mbeans:type=executor,name=SeletestTaskExecutor";
+
+    /**Abort policy*/
+    public static final String ABORT = "abort";
+
+    /**Caller runs policy*/
+    public static final String CALLER_RUNS = "caller-runs";
+
+    /**Blocking policy*/
+    public static final String BLOCKING = "blocking";
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private final AtomicLong maxWait = new AtomicLong();
+
+    /**
+     * @param policy String abort, caller-runs or blocking
+     * @param blockSeconds long maximum wait of the blocking policy
+     */
+    public MonitoredTaskExecutor(final String policy, final long blockSeconds) {
+        setRejectedExecutionHandler(new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+                if (!executor.isShutdown()) {
+                    if (CALLER_RUNS.equals(policy)) {
+                        callerRuns.incrementAndGet();
+                        log.debug("Thread pool saturated ({} active, {} queued), task runs in the caller", executor.getActiveCount(), executor.getQueue().size());
+                        task.run();
+                        return;
+                    }
+                    if (BLOCKING.equals(policy)) {
+                        blocked.incrementAndGet();
+                        try {
+                            if (executor.getQueue().offer(task, blockSeconds, TimeUnit.SECONDS)) {
+                                return;
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+                rejected.incrementAndGet();
+                log.error("Task rejected, thread pool saturated ({} active, {} queued, policy {})", executor.getActiveCount(), executor.getQueue().size(), policy);
+                throw new RejectedExecutionException("Task " + task + " rejected from " + executor);
+            }
+        });
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        super.execute(timed(task));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return super.submit(timed(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return super.submit(timed(task));
+    }
+
+    @Override
+    public ListenableFuture<?> submitListenable(Runnable task) {
+        return super.submitListenable(timed(task));
+    }
+
+    @Override
+    public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+        return super.submitListenable(timed(task));
+    }
+
+    @ManagedAttribute(description = "Tasks waiting in the queue")
+    public int getQueueDepth() {
+        return getThreadPoolExecutor().getQueue().size();
+    }
+
+    @ManagedAttribute(description = "Threads running tasks")
+    public int getActive() {
+        return getActiveCount();
+    }
+
+    @ManagedAttribute(description = "Threads in the pool")
+    public int getThreads() {
+        return getPoolSize();
+    }
+
+    @ManagedAttribute(description = "Tasks rejected")
+    public long getRejections() {
+        return rejected.get();
+    }
+
+    @ManagedAttribute(description = "Tasks run by the submitting thread on saturation")
+    public long getCallerRuns() {
+        return callerRuns.get();
+    }
+
+    @ManagedAttribute(description = "Submissions that waited for room in the queue")
+    public long getBlockedSubmissions() {
+        return blocked.get();
+    }
+
+    @ManagedAttribute(description = "Tasks started by the pool")
+    public long getStartedTasks() {
+        return started.get();
+    }
+
+    @ManagedAttribute(description = "Average time in ms tasks waited in the queue")
+    public double getAverageWaitMillis() {
+        long count = started.get();
+        return count == 0 ? 0 : totalWait.get() / 1000000.0 / count;
+    }
+
+    @ManagedAttribute(description = "Longest time in ms a task waited in the queue")
+    public double getMaxWaitMillis() {
+        return maxWait.get() / 1000000.0;
+    }
+
+    /**
+     * Records the queue wait when the task starts
+     */
+    private void waited(long submitted) {
+        long wait = System.nanoTime() - submitted;
+        started.incrementAndGet();
+        totalWait.addAndGet(wait);
+        long max;
+        while (wait > (max = maxWait.get()) && !maxWait.compareAndSet(max, wait)) {
+            // retry
+        }
+    }
+
+    private Runnable timed(final Runnable task) {
+        final long submitted = System.nanoTime();
+        return new Runnable() {
+            @Override
+            public void run() {
+                waited(submitted);
+                task.run();
+            }
+
+            @Override
+            public String toString() {
+                return task.toString();
+            }
+        };
+    }
+
+    private <T> Callable<T> timed(final Callable<T> task) {
+        final long submitted = System.nanoTime();
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                waited(submitted);
+                return task.call();
+            }
+
+            @Override
+            public String toString() {
+                return task.toString();
+            }
+        };
+    }
+}
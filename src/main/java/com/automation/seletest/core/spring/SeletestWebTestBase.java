@@ -28,14 +28,23 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.spring;
 
 import com.automation.seletest.core.listeners.InitListener;
+import com.automation.seletest.core.listeners.SessionPrestarter;
+import com.automation.seletest.core.listeners.beanUtils.Events.InitializationEvent;
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.services.annotations.SeleniumTest;
+import com.automation.seletest.core.services.performance.ProxyRules;
+import com.automation.seletest.core.testNG.SmartRetry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
 import org.testng.ITestContext;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.AfterSuite;
@@ -53,7 +62,7 @@ import org.testng.annotations.Listeners;
  */
 @Slf4j
 @Listeners(InitListener.class)
-public class SeletestWebTestBase extends SpringTestBase {
+public class SeletestWebTestBase extends SpringTestBase implements IHookable {
 
 	@Autowired
 	Environment env;
@@ -61,6 +70,9 @@ public class SeletestWebTestBase extends SpringTestBase {
     /**Μessage initialize new session*/
     private static final String INITIALIZE_SESSION="Event for initializing Session occured at: {} !!!";
 
+    /**Message launch session ahead*/
+    private static final String PRESTART_SESSION="Session launched ahead at: {} !!!";
+
     /**Message for exception during application context load*/
     private static final String ERROR_IOC="Error during initializing spring container ";
 
@@ -69,11 +81,15 @@ public class SeletestWebTestBase extends SpringTestBase {
     protected void suiteSettings(ITestContext ctx) throws Exception {
         log.debug("Suite : "+ctx.getCurrentXmlTest().getSuite().getName()+" started at: {}",ctx.getStartDate());
         applicationContext.getBean(ThreadPoolTaskExecutor.class).getThreadPoolExecutor().allowCoreThreadTimeOut(true);
+        prestartSessions(ctx);
 
     }
 
     @BeforeTest(alwaysRun = true)
     protected void beforeTest(ITestContext ctx) throws Exception {
+        // the context of a <test> is only known from here on (the first one also from @BeforeSuite), so for
+        // parallel=false/tests the session prestarted here is taken right away, see SessionPrestarter
+        prestartSessions(ctx);
         if(ctx.getCurrentXmlTest().getParallel().compareTo("false")==0 || ctx.getCurrentXmlTest().getParallel().compareTo("tests")==0){
             log.debug("############### Initialize session upon parallel level: <<\"parallel={}\">> ###############", ctx.getCurrentXmlTest().getParallel());
             initializeSession(ctx);
@@ -102,6 +118,7 @@ public class SeletestWebTestBase extends SpringTestBase {
         if(ctx.getCurrentXmlTest().getParallel().compareTo("classes")==0){
             log.debug("############### Clean session on @AfterClass ###############");
             SessionContext.cleanSession();
+            applicationContext.getBean(SessionPrestarter.class).released(ctx);
         }
     }
 
@@ -112,6 +129,7 @@ public class SeletestWebTestBase extends SpringTestBase {
                 ctx.getCurrentXmlTest().getParallel().compareTo("tests")==0){
             log.debug("############### Clean session on @AfterTest ###############");
             SessionContext.cleanSession();
+            applicationContext.getBean(SessionPrestarter.class).released(ctx);
         }
     }
 
@@ -121,19 +139,73 @@ public class SeletestWebTestBase extends SpringTestBase {
         if(ctx.getCurrentXmlTest().getParallel().compareTo("methods")==0){
             log.debug("############### Clean session on @AfterMethod ###############");
             SessionContext.cleanSession();
+            applicationContext.getBean(SessionPrestarter.class).released(ctx);
         }
     }
 
     @Caching(evict = {@CacheEvict(value="webCache", allEntries=true, beforeInvocation = true)})
     @AfterSuite(alwaysRun = true)
     protected void cleanSuite() throws Exception {
+          applicationContext.getBean(SessionPrestarter.class).discard();
           SessionContext.cleanSessionsFromStack();
     }
 
 
+    /**
+     * Runs the test body, failed bodies are retried in place on a healthy session (retry.smart).
+     * A test with invalid proxy rules, or rules that could not be applied, fails before its body runs
+     */
+    @Override
+    public void run(final IHookCallBack callBack, ITestResult testResult) {
+        SeleniumTest test=AnnotationUtils.findAnnotation(testResult.getMethod().getConstructorOrMethod().getMethod(), SeleniumTest.class);
+        if(test!=null) {
+            ProxyRules.validate(test.proxyRules());
+        }
+        if(testResult.getAttribute(ProxyRules.FAILURE)!=null) {
+            throw new IllegalStateException("Proxy rules of "+testResult.getName()+" not applied", (Throwable) testResult.getAttribute(ProxyRules.FAILURE));
+        }
+        if(!SmartRetry.enabled(env)) {
+            super.run(callBack, testResult);
+            return;
+        }
+        final String host=testResult.getTestContext().getCurrentXmlTest().getParameter(env.getProperty("host"));
+        final Throwable[] failure=new Throwable[1];
+        super.run(new IHookCallBack() {
+            @Override
+            public void runTestMethod(ITestResult result) {
+                failure[0]=SmartRetry.run(callBack, result, env, host);
+            }
+
+            @Override
+            public Object[] getParameters() {
+                return callBack.getParameters();
+            }
+        }, testResult);
+        if(failure[0]!=null) {
+            SmartRetry.<RuntimeException>rethrow(failure[0]);
+        }
+    }
+
     private void initializeSession(ITestContext ctx) throws Exception{
         ApplicationContextProvider publisher = applicationContext.getBean(ApplicationContextProvider.class);
-        publisher.publishInitializationEvent(INITIALIZE_SESSION, ctx.getCurrentXmlTest().getParameter(env.getProperty("host")),ctx.getCurrentXmlTest().getParameter(env.getProperty("performance"))!=null && Boolean.parseBoolean(ctx.getCurrentXmlTest().getParameter(env.getProperty("performance"))) ? true : false,ctx);
+        publisher.publishInitializationEvent(INITIALIZE_SESSION, host(ctx), performance(ctx), ctx);
+    }
+
+    /**
+     * Launches the sessions of the test in the background, they are taken when the session is initialized.
+     * Only the &lt;test&gt; of the context is prestarted, once
+     * @param ctx ITestContext
+     */
+    private void prestartSessions(ITestContext ctx) {
+        applicationContext.getBean(SessionPrestarter.class).prestart(new InitializationEvent(applicationContext.getBean(ApplicationContextProvider.class), PRESTART_SESSION, host(ctx), performance(ctx), ctx));
+    }
+
+    private String host(ITestContext ctx) {
+        return ctx.getCurrentXmlTest().getParameter(env.getProperty("host"));
+    }
+
+    private boolean performance(ITestContext ctx) {
+        return Boolean.parseBoolean(ctx.getCurrentXmlTest().getParameter(env.getProperty("performance")));
     }
 
 
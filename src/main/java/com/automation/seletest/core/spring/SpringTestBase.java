@@ -21,6 +21,11 @@ import org.testng.annotations.BeforeTest;
 @ContextConfiguration(classes=ConfigurationDriver.class)
 public class SpringTestBase extends AbstractTestNGSpringContextTests {
 
+	/**
+	 * Injects the test instance before its first configuration method. TestNG runs @BeforeSuite and @BeforeTest
+	 * on a single instance, which may not be the instance of the current class, and the override drops the
+	 * @BeforeClass of the parent, so all three bindings are needed. Instances already injected return immediately
+	 */
 	@BeforeSuite(alwaysRun = true)
 	@BeforeClass(alwaysRun = true)
 	@BeforeTest(alwaysRun = true)
@@ -42,12 +47,19 @@ public class SpringTestBase extends AbstractTestNGSpringContextTests {
 	}
 
 	/**
-	 * Prepare Test loading application context
+	 * Prepare Test loading application context.
+	 * Only the startup of the first instance is timed, the context itself comes from Spring's context cache
 	 * @throws Exception
 	 */
 	private void prepareTest() throws Exception {
 		if (applicationContext == null) {
-			super.springTestContextPrepareTestInstance();
+			if (StartupPhases.start()) {
+				super.springTestContextPrepareTestInstance();
+				StartupPhases.phase("test instance");
+				StartupPhases.report();
+			} else {
+				super.springTestContextPrepareTestInstance();
+			}
 		}
 	}
 
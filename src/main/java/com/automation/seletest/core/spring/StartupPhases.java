@@ -0,0 +1,113 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Times the startup phases of the application context: bean definitions (configuration classes and
+ * component scan), singletons (instantiation and refresh) and test instance (dependency injection
+ * of the first test class). Phases are logged once the first test instance is prepared.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class StartupPhases implements BeanFactoryPostProcessor, ApplicationListener<ContextRefreshedEvent> {
+
+    /**Duration in ms per phase*/
+    private static final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+
+    /**Start of the current phase, class loading if the context is not started through start()*/
+    private static long mark = System.currentTimeMillis();
+
+    /**Start of the first phase*/
+    private static long started;
+
+    /**
+     * Starts timing, only the first call per JVM counts
+     * @return true if this call started timing
+     */
+    public static synchronized boolean start() {
+        if (started > 0) {
+            return false;
+        }
+        started = System.currentTimeMillis();
+        mark = started;
+        return true;
+    }
+
+    /**
+     * Ends the current phase
+     * @param phase String name of the phase
+     */
+    public static synchronized void phase(String phase) {
+        long now = System.currentTimeMillis();
+        phases.put(phase, now - mark);
+        mark = now;
+    }
+
+    /**
+     * Logs the phases and the total startup time
+     */
+    public static synchronized void report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            report.append(phase.getKey()).append('=').append(phase.getValue()).append("ms ");
+        }
+        log.info("Spring startup {}total={}ms", report, mark - (started > 0 ? started : mark));
+    }
+
+    /**
+     * Duration per phase
+     * @return Map unmodifiable copy of the phases
+     */
+    public static Map<String, Long> getPhases() {
+        synchronized (phases) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+        }
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        phase("bean definitions");
+        log.debug("{} bean definitions loaded", beanFactory.getBeanDefinitionCount());
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        phase("singletons");
+    }
+}
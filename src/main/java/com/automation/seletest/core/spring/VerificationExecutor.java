@@ -0,0 +1,119 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring;
+
+import com.automation.seletest.core.selenium.threads.SessionContext;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of asynchronous verifications that does not bound the number of concurrent waits.
+ * <ul>
+ * <li>virtual: one virtual thread per verification, on JDK 21 and later</li>
+ * <li>elastic: one small-stack daemon thread per concurrent verification, idle threads are reused for a minute.
+ * Used when virtual threads are not available</li>
+ * </ul>
+ * Tasks are handed over directly, so the executor never queues or rejects verifications.
+ * Every task runs with the session of the thread that submitted it, so short-lived threads never create
+ * sessions of their own in the ThreadLocalTargetSource.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class VerificationExecutor extends ConcurrentTaskExecutor implements DisposableBean {
+
+    /**Virtual thread mode*/
+    public static final String VIRTUAL = "virtual";
+
+    /**Elastic thread mode*/
+    public static final String ELASTIC = "elastic";
+
+    private final ExecutorService service;
+
+    /**The mode in use, elastic if virtual threads were requested but are not available*/
+    @Getter
+    private final String mode;
+
+    /**
+     * @param mode String virtual or elastic
+     * @param stackSize long stack size in bytes of elastic threads
+     */
+    public VerificationExecutor(String mode, long stackSize) {
+        ExecutorService virtual = VIRTUAL.equals(mode) ? virtualThreads() : null;
+        this.mode = virtual != null ? VIRTUAL : ELASTIC;
+        this.service = virtual != null ? virtual : elasticThreads(stackSize);
+        setConcurrentExecutor(new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                service.execute(SessionContext.withSession(task));
+            }
+        });
+        log.debug("Verifications run on {} threads", this.mode);
+    }
+
+    @Override
+    public void destroy() {
+        service.shutdownNow();
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), looked up reflectively as the sources target Java 7
+     * @return ExecutorService or null before JDK 21
+     */
+    private static ExecutorService virtualThreads() {
+        try {
+            return (ExecutorService) java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            log.warn("Virtual threads are not available on Java {}, verifications run on elastic threads", System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+    private static ExecutorService elasticThreads(final long stackSize) {
+        ThreadFactory factory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(null, task, "Seletest Verification - " + count.incrementAndGet(), stackSize);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), factory);
+    }
+}
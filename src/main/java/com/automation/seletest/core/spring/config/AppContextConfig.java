@@ -0,0 +1,208 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring.config;
+
+import com.automation.seletest.core.listeners.beanUtils.DriverBeanPostProcessor;
+import com.automation.seletest.core.services.factories.StrategyFactory;
+import com.automation.seletest.core.spring.AsyncSeletestExecutor;
+import com.automation.seletest.core.spring.BeanStartupProfiler;
+import com.automation.seletest.core.spring.LazyInitPostProcessor;
+import com.automation.seletest.core.spring.StartupPhases;
+import com.automation.seletest.core.spring.VerificationExecutor;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ServiceLocatorFactoryBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableLoadTimeWeaving;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.ImportResource;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.aspectj.EnableSpringConfigured;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Core bean definitions, formerly app-context.xml.
+ * Components of com.automation.seletest are scanned once for the whole context.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Configuration
+@EnableSpringConfigured
+@EnableLoadTimeWeaving
+@EnableAsync(proxyTargetClass = true)
+@EnableScheduling
+@ComponentScan(basePackages = "com.automation.seletest", excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX,
+        pattern = {"com.automation.seletest.core.selenium.configuration.ConfigurationDriver.*", "com.automation.seletest.core.spring.config.*"}))
+@ImportResource("classpath:/META-INF/spring/test-beans*.xml")
+public class AppContextConfig implements AsyncConfigurer {
+
+    @Autowired
+    Environment env;
+
+    @Autowired
+    @Qualifier("SeletestTaskExecutor")
+    ThreadPoolTaskExecutor seletestTaskExecutor;
+
+    /**
+     * Resolves ${...} placeholders against the environment
+     * @return PropertySourcesPlaceholderConfigurer
+     */
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer placeholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
+    /**
+     * Times the startup phases of the context
+     * @return StartupPhases
+     */
+    @Bean
+    public static StartupPhases startupPhases() {
+        return new StartupPhases();
+    }
+
+    /**
+     * Lazy initialization mode of framework beans
+     * @return LazyInitPostProcessor
+     */
+    @Bean
+    public static LazyInitPostProcessor lazyInitPostProcessor() {
+        return new LazyInitPostProcessor();
+    }
+
+    /**
+     * Time spent per bean at startup
+     * @return BeanStartupProfiler
+     */
+    @Bean
+    public static BeanStartupProfiler beanStartupProfiler() {
+        return new BeanStartupProfiler();
+    }
+
+    /**
+     * Bean post processor for drivers
+     * @return DriverBeanPostProcessor
+     */
+    @Bean
+    public static DriverBeanPostProcessor driverBeanPostProcessor() {
+        return new DriverBeanPostProcessor();
+    }
+
+    /**
+     * Aliases of the wait and controller strategies
+     * @return BeanFactoryPostProcessor registering the aliases
+     */
+    @Bean
+    public static BeanFactoryPostProcessor strategyAliases() {
+        return new BeanFactoryPostProcessor() {
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+                beanFactory.registerAlias("webDriverWait", "WebDriverWait");
+                beanFactory.registerAlias("seleniumWait", "SeleniumWait");
+                beanFactory.registerAlias("webDriverControl", "WebDriverAPI");
+                beanFactory.registerAlias("seleniumControl", "SeleniumAPI");
+            }
+        };
+    }
+
+    /**
+     * Asynchronous task executor
+     * @return AsyncSeletestExecutor wrapping the SeletestTaskExecutor, or the verification executor if async.executor is virtual or elastic
+     */
+    @Bean(name = "exceptionHandlingTaskExecutor")
+    public AsyncSeletestExecutor<?> exceptionHandlingTaskExecutor() {
+        String mode = env.getProperty("async.executor", "pool");
+        if (VerificationExecutor.VIRTUAL.equals(mode) || VerificationExecutor.ELASTIC.equals(mode)) {
+            return new AsyncSeletestExecutor<>(verificationExecutor());
+        }
+        return new AsyncSeletestExecutor<>(seletestTaskExecutor);
+    }
+
+    /**
+     * Unbounded executor of verifications
+     * @return VerificationExecutor
+     */
+    @Bean(name = "verificationExecutor")
+    @Lazy
+    public VerificationExecutor verificationExecutor() {
+        return new VerificationExecutor(env.getProperty("async.executor"), env.getProperty("async.stack.kb", Long.class, 256L) * 1024);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return exceptionHandlingTaskExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return null;
+    }
+
+    /**
+     * Factory for strategies
+     * @return ServiceLocatorFactoryBean
+     */
+    @Bean(name = "StrategyFactory")
+    public ServiceLocatorFactoryBean strategyFactory() {
+        ServiceLocatorFactoryBean factory = new ServiceLocatorFactoryBean();
+        factory.setServiceLocatorInterface(StrategyFactory.class);
+        return factory;
+    }
+
+    /**
+     * RestTemplate client
+     * @return RestTemplate
+     */
+    @Bean(name = "restTemplate")
+    public RestTemplate restTemplate() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new FormHttpMessageConverter());
+        converters.add(new StringHttpMessageConverter());
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setMessageConverters(converters);
+        return restTemplate;
+    }
+}
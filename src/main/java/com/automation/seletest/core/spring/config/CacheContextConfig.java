@@ -0,0 +1,108 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring.config;
+
+import com.automation.seletest.core.spring.LazyInitPostProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.ehcache.EhCacheCacheManager;
+import org.springframework.cache.ehcache.EhCacheManagerFactoryBean;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Collection;
+
+/**
+ * Cache bean definitions, formerly cache-context.xml
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Configuration
+@EnableCaching
+public class CacheContextConfig implements CachingConfigurer {
+
+    @Autowired
+    Environment env;
+
+    /**The EhCacheGenerator component*/
+    @Autowired
+    KeyGenerator cacheKeyGenerator;
+
+    /**
+     * Cache for selenium
+     * @return EhCacheManagerFactoryBean
+     */
+    @Bean(name = "seleniumEhcache")
+    public EhCacheManagerFactoryBean seleniumEhcache() {
+        EhCacheManagerFactoryBean factory = new EhCacheManagerFactoryBean();
+        factory.setConfigLocation(new ClassPathResource("ehcache.xml"));
+        factory.setShared(true);
+        return factory;
+    }
+
+    /**
+     * Cache manager for seletest
+     * @return EhCacheCacheManager
+     */
+    @Bean(name = "seleniumCacheManager")
+    public EhCacheCacheManager seleniumCacheManager() {
+        return new EhCacheCacheManager(seleniumEhcache().getObject());
+    }
+
+    /**
+     * The cache manager of the caching interceptor, in lazy mode EhCache starts with the first cached call
+     * @return CacheManager
+     */
+    @Override
+    public CacheManager cacheManager() {
+        if (!LazyInitPostProcessor.isLazy(env)) {
+            return seleniumCacheManager();
+        }
+        return new CacheManager() {
+            @Override
+            public Cache getCache(String name) {
+                return seleniumCacheManager().getCache(name);
+            }
+
+            @Override
+            public Collection<String> getCacheNames() {
+                return seleniumCacheManager().getCacheNames();
+            }
+        };
+    }
+
+    @Override
+    public KeyGenerator keyGenerator() {
+        return cacheKeyGenerator;
+    }
+}
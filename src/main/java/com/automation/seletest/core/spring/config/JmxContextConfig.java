@@ -0,0 +1,102 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring.config;
+
+import com.automation.seletest.core.jmx.MemoryWarningService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
+import org.springframework.jmx.support.ConnectorServerFactoryBean;
+import org.springframework.jmx.support.MBeanServerConnectionFactoryBean;
+import org.springframework.remoting.rmi.RmiRegistryFactoryBean;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.NotificationEmitter;
+import java.lang.management.ManagementFactory;
+import java.net.MalformedURLException;
+
+/**
+ * JMX bean definitions, formerly jmx-context.xml
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Configuration
+public class JmxContextConfig {
+
+    @Autowired
+    Environment env;
+
+    @Bean(name = "rmiRegistry")
+    public RmiRegistryFactoryBean rmiRegistry() {
+        RmiRegistryFactoryBean registry = new RmiRegistryFactoryBean();
+        registry.setPort(env.getProperty("seletest.jmx.rmi.port", Integer.class));
+        return registry;
+    }
+
+    @Bean(name = "seletestJmxServer")
+    @DependsOn("rmiRegistry")
+    public ConnectorServerFactoryBean seletestJmxServer() throws MalformedObjectNameException {
+        ConnectorServerFactoryBean server = new ConnectorServerFactoryBean();
+        server.setObjectName("connector:name=rmi");
+        server.setServiceUrl(serviceUrl());
+        return server;
+    }
+
+    @Bean(name = "clientConnector")
+    @DependsOn("seletestJmxServer")
+    public MBeanServerConnectionFactoryBean clientConnector() throws MalformedURLException {
+        MBeanServerConnectionFactoryBean connector = new MBeanServerConnectionFactoryBean();
+        connector.setServiceUrl(serviceUrl());
+        return connector;
+    }
+
+    /**
+     * ManagementFactory handles managed beans in java platform
+     * @return NotificationEmitter the memory MX bean
+     */
+    @Bean(name = "memoryMxBean")
+    public NotificationEmitter memoryMxBean() {
+        return (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+    }
+
+    /**
+     * Memory warning service
+     * @return MemoryWarningService
+     */
+    @Bean(name = "memoryWarningService")
+    public MemoryWarningService memoryWarningService() {
+        MemoryWarningService service = new MemoryWarningService();
+        service.setPercentageUsageThreshold(0.5);
+        return service;
+    }
+
+    private String serviceUrl() {
+        return "service:jmx:rmi://localhost/jndi/rmi://localhost:" + env.getProperty("seletest.jmx.rmi.port") + "/seletestJmxConnector";
+    }
+}
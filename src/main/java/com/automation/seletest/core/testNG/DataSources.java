@@ -27,6 +27,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.testNG;
 
 import java.lang.reflect.Method;
+import java.util.Iterator;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
@@ -36,6 +37,8 @@ import org.springframework.stereotype.Component;
 import org.testng.ITestContext;
 import org.testng.annotations.DataProvider;
 
+import com.automation.seletest.core.services.data.DataStore;
+import com.automation.seletest.core.services.data.RowFilter;
 import com.automation.seletest.core.services.utilities.FilesUtils;
 import com.automation.seletest.core.spring.ApplicationContextProvider;
 
@@ -57,14 +60,14 @@ public class DataSources {
     /**Constant for excel table*/
     private final static String EXCELTABLE="xlsTable";
 
-    private static FilesUtils file;
+    private static DataStore store;
 
     @Autowired
-    private FilesUtils wiredfile;
+    private DataStore wiredstore;
 
     @PostConstruct
     public void init() {
-        DataSources.file = wiredfile;
+        DataSources.store = wiredstore;
     }
 
     /**
@@ -79,13 +82,39 @@ public class DataSources {
         return new Object[][] { { map } };
     }
 
+    /**
+     * DataProvider that streams the rows of an Excel table or CSV file. Rows are read lazily from the
+     * compiled data source, filters (tags, sampling, shards) are applied by the reader.
+     * <p>Limitations: the first use of a source compiles the whole source before the first row is returned, and
+     * as a parallel provider TestNG drains the iterator into its workers before running any row, so all rows
+     * of the test are in memory at once; rows are only read one at a time with parallel=false.</p>
+     * @param context ITestContext
+     * @return Iterator with the rows
+     * @throws Exception
+     */
     @DataProvider(name = "ExcelDataProvider",parallel=true)
-    public static Object[][] createData(ITestContext context) throws Exception{
+    public static Iterator<Object[]> createData(ITestContext context) throws Exception{
         String testParam = context.getCurrentXmlTest().getParameter(EXCEL);
         String testParamSheet = context.getCurrentXmlTest().getParameter(EXCELSHEET);
         String testParamTable = context.getCurrentXmlTest().getParameter(EXCELTABLE);
-        Object[][] retObjArr=file.getTableArray(testParam,testParamSheet,testParamTable);
-        return(retObjArr);
+        RowFilter filter = RowFilter.fromParameters(context.getCurrentXmlTest().getAllParameters());
+        final Iterator<String[]> rows = store.table(testParam,testParamSheet,testParamTable).iterator(filter);
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return rows.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Data rows are read only");
+            }
+        };
     }
 
 
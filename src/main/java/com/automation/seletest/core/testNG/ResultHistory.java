@@ -0,0 +1,293 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.testNG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.testng.IMethodInstance;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import com.automation.seletest.core.listeners.AnnotationTransformer;
+
+/**
+ * History of the outcomes of each test (class#method) over the last runs, used to schedule recently failed
+ * and flaky tests first. Outcome of a run: P passed, F failed, R passed after a retry (RetryAnalyzer or in place).
+ * A test is flaky when it passed after a retry or flipped between pass and fail at least twice in the window.
+ * <p>Settings (system properties): results.history (./target/test-results.properties), results.window (runs kept, 10),
+ * results.flaky (first: flaky tests with the failed ones, lane: flaky tests after all the others)</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public final class ResultHistory {
+
+    private static final char PASSED = 'P';
+
+    private static final char FAILED = 'F';
+
+    private static final char RETRIED = 'R';
+
+    /**Outcomes of the attempts (data driven invocations, factory instances) per class#method in this run*/
+    private static final ConcurrentMap<String, Queue<Character>> outcomes = new ConcurrentHashMap<>();
+
+    /**Attempts (method, instance, parameters) handed to a new attempt by the RetryAnalyzer, not yet finished*/
+    private static final ConcurrentMap<String, AtomicInteger> retries = new ConcurrentHashMap<>();
+
+    private ResultHistory() {
+    }
+
+    /**
+     * Records the result of a test attempt. Attempts handed to a retry by the RetryAnalyzer are not recorded,
+     * their retry is: a passed retry or a test retried in place counts as R. Other skipped attempts count only
+     * when they carry a failure
+     * @param result ITestResult of a test method
+     */
+    public static void record(ITestResult result) {
+        String attempt = result.getMethod().getQualifiedName() + "|" + System.identityHashCode(result.getInstance()) + "|" + Arrays.deepToString(result.getParameters());
+        if (result.getAttribute(AnnotationTransformer.RETRIED_ATTEMPT) != null) {
+            retries.putIfAbsent(attempt, new AtomicInteger());
+            retries.get(attempt).incrementAndGet();
+            return;
+        }
+        Queue<Character> attempts = outcomes.get(key(result.getMethod()));
+        if (attempts == null) {
+            outcomes.putIfAbsent(key(result.getMethod()), new ConcurrentLinkedQueue<Character>());
+            attempts = outcomes.get(key(result.getMethod()));
+        }
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS:
+                attempts.add(retried(attempt) || result.getAttribute(SmartRetry.RETRIED) != null ? RETRIED : PASSED);
+                break;
+            case ITestResult.FAILURE:
+                retried(attempt);
+                attempts.add(FAILED);
+                break;
+            case ITestResult.SKIP:
+                retried(attempt);
+                if (result.getThrowable() != null && !(result.getThrowable() instanceof SkipException)) {
+                    attempts.add(FAILED);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @return true if the attempt is the retry of an attempt handed over by the RetryAnalyzer
+     */
+    private static boolean retried(String attempt) {
+        AtomicInteger pending = retries.get(attempt);
+        if (pending == null) {
+            return false;
+        }
+        while (true) {
+            int count = pending.get();
+            if (count == 0) {
+                return false;
+            }
+            if (pending.compareAndSet(count, count - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Appends the outcomes of this run to the history file. The file is locked while merged, so worker
+     * JVMs can save concurrently
+     * @throws IOException
+     */
+    public static synchronized void save() throws IOException {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        Map<String, Character> run = new HashMap<>();
+        for (Map.Entry<String, Queue<Character>> test : outcomes.entrySet()) {
+            if (!test.getValue().isEmpty()) {
+                run.put(test.getKey(), outcome(test.getValue()));
+            }
+        }
+        outcomes.clear();
+        retries.clear();
+        int window = Integer.getInteger("results.window", 10);
+        file().getAbsoluteFile().getParentFile().mkdirs();
+        try (RandomAccessFile file = new RandomAccessFile(file(), "rw"); FileLock lock = file.getChannel().lock()) {
+            byte[] content = new byte[(int) file.length()];
+            file.readFully(content);
+            Properties history = new Properties();
+            history.load(new StringReader(new String(content, StandardCharsets.ISO_8859_1)));
+            for (Map.Entry<String, Character> test : run.entrySet()) {
+                String runs = history.getProperty(test.getKey(), "") + test.getValue();
+                history.setProperty(test.getKey(), runs.substring(Math.max(0, runs.length() - window)));
+            }
+            StringWriter out = new StringWriter();
+            history.store(out, "Test outcomes per class#method, latest last: P passed, F failed, R passed after retry");
+            file.setLength(0);
+            file.write(out.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+        log.debug("Outcomes of {} tests saved to {}", run.size(), file());
+    }
+
+    /**
+     * Orders methods by their history: failed in the last run first (also when flaky), then flaky
+     * (results.flaky=first), then the rest and flaky last (results.flaky=lane). The order within each group is kept
+     * @param methods List of IMethodInstance
+     * @param byClass boolean order whole classes by their most urgent method (parallel="classes")
+     * @return List of ordered methods
+     */
+    public static List<IMethodInstance> order(List<IMethodInstance> methods, boolean byClass) {
+        Map<String, String> history = load();
+        if (history.isEmpty()) {
+            return methods;
+        }
+        boolean lane = "lane".equalsIgnoreCase(System.getProperty("results.flaky", "first"));
+        final Map<Object, Integer> ranks = new HashMap<>();
+        int failed = 0;
+        int flaky = 0;
+        for (IMethodInstance method : methods) {
+            String runs = history.get(key(method.getMethod()));
+            int rank = 2;
+            if (runs != null && runs.charAt(runs.length() - 1) == FAILED) {
+                rank = 0;
+                failed++;
+            } else if (runs != null && flaky(runs)) {
+                rank = lane ? 3 : 1;
+                flaky++;
+            }
+            Object group = byClass ? method.getMethod().getRealClass() : method;
+            Integer current = ranks.get(group);
+            ranks.put(group, current == null ? rank : Math.min(current, rank));
+        }
+        if (failed == 0 && flaky == 0) {
+            return methods;
+        }
+        final boolean classes = byClass;
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        Collections.sort(ordered, new Comparator<IMethodInstance>() {
+            @Override
+            public int compare(IMethodInstance a, IMethodInstance b) {
+                return Integer.compare(ranks.get(classes ? a.getMethod().getRealClass() : a), ranks.get(classes ? b.getMethod().getRealClass() : b));
+            }
+        });
+        log.info("{} recently failed methods scheduled first, {} flaky methods scheduled {}", failed, flaky, lane ? "last" : "after them");
+        return ordered;
+    }
+
+    /**
+     * @param runs String outcomes, latest last
+     * @return true if passed after a retry or flipped between pass and fail at least twice
+     */
+    public static boolean flaky(String runs) {
+        if (runs.indexOf(RETRIED) >= 0) {
+            return true;
+        }
+        int flips = 0;
+        for (int i = 1; i < runs.length(); i++) {
+            if (runs.charAt(i) != runs.charAt(i - 1)) {
+                flips++;
+            }
+        }
+        return flips >= 2;
+    }
+
+    /**
+     * Outcome of a run from the outcomes of its attempts (data driven invocations, factory instances)
+     */
+    private static char outcome(Iterable<Character> attempts) {
+        char outcome = PASSED;
+        for (char attempt : attempts) {
+            if (attempt == FAILED) {
+                return FAILED;
+            }
+            if (attempt == RETRIED) {
+                outcome = RETRIED;
+            }
+        }
+        return outcome;
+    }
+
+    private static String key(ITestNGMethod method) {
+        return method.getRealClass().getName() + "#" + method.getMethodName();
+    }
+
+    /**
+     * @return File of the history, results.history system property or ./target/test-results.properties
+     */
+    public static File file() {
+        return new File(System.getProperty("results.history", "./target/test-results.properties"));
+    }
+
+    /**
+     * Outcomes of previous runs
+     * @return Map of outcomes per class#method, latest last
+     */
+    public static Map<String, String> load() {
+        Map<String, String> history = new LinkedHashMap<>();
+        if (!file().isFile()) {
+            return history;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(file(), "r")) {
+            byte[] content = new byte[(int) file.length()];
+            file.readFully(content);
+            Properties properties = new Properties();
+            properties.load(new StringReader(new String(content, StandardCharsets.ISO_8859_1)));
+            for (String key : properties.stringPropertyNames()) {
+                String runs = properties.getProperty(key).trim();
+                if (!runs.isEmpty()) {
+                    history.put(key, runs);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Test outcomes not read from {}: {}", file(), e.getMessage());
+        }
+        return history;
+    }
+}
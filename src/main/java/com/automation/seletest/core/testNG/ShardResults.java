@@ -0,0 +1,158 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.testNG;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.testng.IResultMap;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import com.automation.seletest.core.services.data.Shard;
+
+/**
+ * Results of a shard, written per test context so that the shards of a data driven suite
+ * can be merged into one report after all JVMs finished.
+ * <p>Merge usage: ShardResults &lt;shards directory&gt;</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class ShardResults {
+
+    /**Default directory of shard results*/
+    public static final String DIRECTORY = "./target/shards";
+
+    /**Header of result files*/
+    private static final String HEADER = "class,method,parameters,status,start,end";
+
+    /**Name of shard result files*/
+    private static final Pattern FILE = Pattern.compile("(.+)-shard-(\\d+)-of-(\\d+)\\.csv");
+
+    /**
+     * Writes the results of a test context for a shard
+     * @param context ITestContext
+     * @param shard Shard
+     * @param directory File target directory
+     * @return File written
+     * @throws IOException
+     */
+    public static File write(ITestContext context, Shard shard, File directory) throws IOException {
+        directory.mkdirs();
+        File file = new File(directory, (context.getSuite().getName() + "-" + context.getName()).replaceAll("[^A-Za-z0-9._-]", "_") + "-" + shard.getId() + ".csv");
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println(HEADER);
+            write(out, context.getPassedTests(), "PASS");
+            write(out, context.getFailedTests(), "FAIL");
+            write(out, context.getSkippedTests(), "SKIP");
+        }
+        return file;
+    }
+
+    private static void write(PrintWriter out, IResultMap results, String status) {
+        for (ITestResult result : results.getAllResults()) {
+            out.println(csv(result.getTestClass().getName()) + "," + csv(result.getMethod().getMethodName()) + ","
+                    + csv(Arrays.toString(result.getParameters())) + "," + status + "," + result.getStartMillis() + "," + result.getEndMillis());
+        }
+    }
+
+    /**
+     * Merges the shard results of a directory, one merged file per suite and test
+     * @param args String[] directory of shard results (default ./target/shards)
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : DIRECTORY);
+        Map<String, Map<Integer, File>> groups = new TreeMap<>();
+        Map<String, Integer> counts = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            System.err.println("No shard results in " + directory);
+            return;
+        }
+        for (File file : files) {
+            Matcher matcher = FILE.matcher(file.getName());
+            if (matcher.matches()) {
+                if (!groups.containsKey(matcher.group(1))) {
+                    groups.put(matcher.group(1), new TreeMap<Integer, File>());
+                }
+                groups.get(matcher.group(1)).put(Integer.parseInt(matcher.group(2)), file);
+                counts.put(matcher.group(1), Integer.parseInt(matcher.group(3)));
+            }
+        }
+        for (Map.Entry<String, Map<Integer, File>> group : groups.entrySet()) {
+            merge(directory, group.getKey(), group.getValue(), counts.get(group.getKey()));
+        }
+    }
+
+    private static void merge(File directory, String name, Map<Integer, File> shards, int count) throws IOException {
+        Set<Integer> missing = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            if (!shards.containsKey(i)) {
+                missing.add(i);
+            }
+        }
+        Map<String, Integer> totals = new TreeMap<>();
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Integer, File> shard : shards.entrySet()) {
+            try (BufferedReader in = new BufferedReader(new FileReader(shard.getValue()))) {
+                String line = in.readLine();
+                while ((line = in.readLine()) != null) {
+                    lines.add(line + "," + shard.getKey());
+                    String status = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)")[3];
+                    totals.put(status, totals.containsKey(status) ? totals.get(status) + 1 : 1);
+                }
+            }
+        }
+        File merged = new File(directory, name + "-merged.csv");
+        try (PrintWriter out = new PrintWriter(new FileWriter(merged))) {
+            out.println(HEADER + ",shard");
+            for (String line : lines) {
+                out.println(line);
+            }
+        }
+        System.out.println(name + ": " + shards.size() + "/" + count + " shards, " + totals
+                + (missing.isEmpty() ? "" : ", missing shards " + missing) + " -> " + merged.getPath());
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,189 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.testNG;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.SessionNotFoundException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.springframework.core.env.Environment;
+import org.testng.IHookCallBack;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.testNG.assertions.SoftAssert;
+
+/**
+ * In-place retry of a failed test body on the session it already has. When the body fails with a retryable
+ * error (the errors the RetryAnalyzer retries) and the browser still responds, page state is reset (cookies
+ * deleted, host reloaded) and only the test method is invoked again, without configuration methods and a new
+ * driver. If the session is lost the failure is left to the RetryAnalyzer for a full retry.
+ * <p>Settings: retry.smart (true/false), retry.smart.count (in-place attempts), retry.smart.reset (reset page state)</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public final class SmartRetry {
+
+    /**Attribute of results that were retried in place on a healthy session*/
+    public static final String RETRIED = "smartRetries";
+
+    private SmartRetry() {
+    }
+
+    /**
+     * @param env Environment with the retry settings
+     * @return true if failed test bodies are retried in place
+     */
+    public static boolean enabled(Environment env) {
+        return env.getProperty("retry.smart", Boolean.class, false) && env.getProperty("retry.smart.count", Integer.class, 1) > 0;
+    }
+
+    /**
+     * Runs the test body, retrying it in place. Attempts that can still be retried invoke the test method directly,
+     * the last allowed attempt runs through the TestNG callback, so TestNG only sees the failure of that attempt
+     * @param callBack IHookCallBack of the test
+     * @param testResult ITestResult
+     * @param env Environment with the retry settings
+     * @param host String url that restores page state, null to skip navigation
+     * @return Throwable of an attempt that is not retried and did not run through the callback, to be thrown by the caller, else null
+     */
+    public static Throwable run(IHookCallBack callBack, ITestResult testResult, Environment env, String host) {
+        int count = env.getProperty("retry.smart.count", Integer.class, 1);
+        for (int attempt = 0; ; attempt++) {
+            if (attempt >= count) {
+                testResult.setThrowable(null);
+                callBack.runTestMethod(testResult);
+                return null;
+            }
+            Throwable failure = invoke(callBack, testResult);
+            if (failure == null) {
+                return null;
+            }
+            if (!retryable(failure)) {
+                testResult.setThrowable(failure);
+                return failure;
+            }
+            if (!healthy()) {
+                log.info("Session of {} is lost, retry left to the RetryAnalyzer", testResult.getName());
+                testResult.setThrowable(failure);
+                return failure;
+            }
+            testResult.setAttribute(RETRIED, attempt + 1);
+            log.info("{} failed with {}, retrying in place ({}/{})", testResult.getName(), failure.getClass().getSimpleName(), attempt + 1, count);
+            reset(env.getProperty("retry.smart.reset", Boolean.class, true), host);
+        }
+    }
+
+    /**
+     * @param failure Throwable of the test body
+     * @return true for the errors the RetryAnalyzer retries
+     */
+    public static boolean retryable(Throwable failure) {
+        return !(failure instanceof AssertionError || failure instanceof TimeoutException || failure instanceof SkipException
+                || failure instanceof SessionNotFoundException || failure instanceof UnreachableBrowserException);
+    }
+
+    /**
+     * @return true if the driver of the session responds
+     */
+    public static boolean healthy() {
+        try {
+            WebDriver driver = SessionContext.session().getWebDriver();
+            return driver != null && driver.getWindowHandle() != null;
+        } catch (NoSuchWindowException | SessionNotFoundException | UnreachableBrowserException e) {
+            return false;
+        } catch (RuntimeException e) {
+            log.debug("Session health check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Invokes the test method without the TestNG invocation machinery
+     * @return Throwable of the test body, null if it passed
+     */
+    private static Throwable invoke(IHookCallBack callBack, ITestResult testResult) {
+        try {
+            testResult.getMethod().getConstructorOrMethod().getMethod().invoke(testResult.getInstance(), callBack.getParameters());
+            return null;
+        } catch (InvocationTargetException e) {
+            return e.getCause();
+        } catch (IllegalAccessException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Waits for the verifications of the failed attempt, discards its soft assertion failures and restores page state
+     */
+    private static void reset(boolean pageState, String host) {
+        SessionProperties<?> session = SessionContext.session();
+        List<Future<?>> verifications = session.getVerifications();
+        if (verifications != null) {
+            for (Future<?> verification : verifications) {
+                try {
+                    verification.get();
+                } catch (Exception e) {
+                    log.debug("Verification of the failed attempt ended with {}", e.getMessage());
+                }
+            }
+            verifications.clear();
+        }
+        if (session.getAssertion() != null && session.getAssertion().getAssertion() instanceof SoftAssert) {
+            ((SoftAssert) session.getAssertion().getAssertion()).clear();
+        }
+        if (pageState) {
+            WebDriver driver = session.getWebDriver();
+            driver.manage().deleteAllCookies();
+            if (host != null) {
+                driver.navigate().to(host);
+                if (session.getWindowManager() != null) {
+                    session.getWindowManager().navigated();
+                }
+            }
+        }
+    }
+
+    /**
+     * Throws a checked or unchecked Throwable of the test body unchanged
+     * @param failure Throwable
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Throwable> void rethrow(Throwable failure) throws T {
+        throw (T) failure;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.testNG;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Connection of a worker JVM to the {@link WorkerCoordinator}. Active when the JVM was started
+ * with seletest.coordinator (port of the coordinator) and seletest.worker (index of the worker).
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public final class WorkerClient {
+
+    /**System property with the port of the coordinator*/
+    public static final String COORDINATOR = "seletest.coordinator";
+
+    /**System property with the index of the worker*/
+    public static final String WORKER = "seletest.worker";
+
+    /**System property with the number of workers*/
+    public static final String WORKERS = "seletest.workers";
+
+    private static Socket socket;
+    private static PrintWriter out;
+    private static BufferedReader in;
+
+    private WorkerClient() {
+    }
+
+    /**
+     * @return true if this JVM is a worker of a coordinator
+     */
+    public static boolean isWorker() {
+        return System.getProperty(COORDINATOR) != null;
+    }
+
+    /**
+     * @return int index of this worker
+     */
+    public static int index() {
+        return Integer.getInteger(WORKER, 0);
+    }
+
+    /**
+     * @return int number of workers
+     */
+    public static int count() {
+        return Integer.getInteger(WORKERS, 1);
+    }
+
+    /**
+     * Asks the coordinator which methods of a test this worker runs
+     * @param test String name of the test
+     * @param keys List of method keys, the same on all workers
+     * @return List of the keys assigned to this worker, all keys if the coordinator cannot be reached
+     */
+    public static synchronized List<String> claim(String test, List<String> keys) {
+        StringBuilder request = new StringBuilder("CLAIM\t").append(test);
+        for (String key : keys) {
+            request.append('\t').append(key);
+        }
+        try {
+            connect();
+            out.println(request);
+            String response = in.readLine();
+            if (response == null) {
+                throw new IOException("Coordinator closed the connection");
+            }
+            return response.isEmpty() ? new ArrayList<String>() : Arrays.asList(response.split("\t"));
+        } catch (IOException e) {
+            log.error("Coordinator not reachable, worker {} runs all methods of {}: {}", index(), test, e.getMessage());
+            return keys;
+        }
+    }
+
+    /**
+     * Sends a result to the coordinator
+     * @param status String PASS, FAIL or SKIP
+     * @param key String method key
+     * @param millis long duration
+     * @param test String name of the &lt;test&gt;
+     */
+    public static synchronized void report(String status, String key, long millis, String test) {
+        try {
+            connect();
+            out.println("RESULT\t" + status + "\t" + key + "\t" + millis + "\t" + test);
+        } catch (IOException e) {
+            log.debug("Result of {} not sent to coordinator: {}", key, e.getMessage());
+        }
+    }
+
+    private static void connect() throws IOException {
+        if (socket == null) {
+            socket = new Socket(InetAddress.getLoopbackAddress(), Integer.getInteger(COORDINATOR));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.println("HELLO\t" + index());
+        }
+    }
+}
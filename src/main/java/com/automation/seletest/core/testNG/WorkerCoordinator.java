@@ -0,0 +1,358 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.testNG;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.testng.xml.Parser;
+import org.testng.xml.XmlSuite;
+
+import com.automation.seletest.core.listeners.DurationScheduler;
+
+/**
+ * Runs a suite on several worker JVMs. Every worker runs the suite with the DurationScheduler, which asks the
+ * coordinator over a local socket which methods of each test it owns. The coordinator packs the methods on the
+ * workers longest-first by their duration history, collects the results and durations as they finish and merges
+ * the result files of the workers (see {@link ShardResults}) when all workers exit. The TestNG/ReportNG reports are not
+ * merged: each worker writes its own reports, screenshots and log to target/workers/worker-&lt;index&gt;.
+ * The DurationScheduler is added to the workers when the suites do not declare it.
+ * Workers are started with the JVM options of the coordinator, so the Spring agent (-javaagent) that load time
+ * weaving of @Configurable beans needs is passed on when the coordinator is started with it, e.g. with the argLine of
+ * surefire; worker.jvmArgs adds options for the workers only (e.g. the agent when the coordinator runs without it).
+ * <p>Usage: WorkerCoordinator &lt;suite.xml&gt;... with -Dworkers=&lt;count&gt; (default half of the cores) and
+ * -Dworker.jvmArgs=&lt;options&gt;</p>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class WorkerCoordinator {
+
+    /**Directory of worker outputs*/
+    public static final String DIRECTORY = "./target/workers";
+
+    /**Prefixes of system properties that are not forwarded to the workers*/
+    private static final List<String> LOCAL = Arrays.asList("java.", "sun.", "os.", "user.", "file.", "line.", "path.", "awt.", "jdk.", "seletest.worker", "seletest.coordinator", "workers");
+
+    private final int workers;
+
+    /**Method key to worker per test*/
+    private final Map<String, Map<String, Integer>> partitions = new HashMap<>();
+
+    /**Results by status*/
+    private final ConcurrentMap<String, AtomicInteger> totals = new ConcurrentHashMap<>();
+
+    /**Durations of this run per class#method and test*/
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> durations = new ConcurrentHashMap<>();
+
+    public WorkerCoordinator(int workers) {
+        this.workers = workers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            log.error("Usage: WorkerCoordinator <suite.xml>... [-Dworkers=<count>] [-Dworker.jvmArgs=<options>]");
+            System.exit(2);
+        }
+        int workers = Integer.getInteger("workers", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        System.exit(new WorkerCoordinator(workers).run(args));
+    }
+
+    /**
+     * Starts the workers and waits for them
+     * @param suites String[] suite files
+     * @return int 0 if all workers succeeded and no test failed
+     * @throws Exception
+     */
+    public int run(String[] suites) throws Exception {
+        File directory = new File(DIRECTORY);
+        directory.mkdirs();
+        try (final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread acceptor = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            final Socket socket = server.accept();
+                            Thread handler = new Thread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    serve(socket);
+                                }
+                            }, "Seletest coordinator connection");
+                            handler.setDaemon(true);
+                            handler.start();
+                        }
+                    } catch (IOException e) {
+                        // server closed
+                    }
+                }
+            }, "Seletest coordinator");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            List<Process> processes = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                processes.add(worker(i, server.getLocalPort(), suites, directory).start());
+            }
+            log.info("{} workers started, logs in {}", workers, directory.getPath());
+            int exit = 0;
+            for (int i = 0; i < processes.size(); i++) {
+                int code = processes.get(i).waitFor();
+                if (code != 0) {
+                    log.warn("Worker {} exited with {}", i, code);
+                    exit = 1;
+                }
+            }
+            Map<String, Long> measured = new HashMap<>();
+            for (Map.Entry<String, ConcurrentMap<String, AtomicLong>> duration : durations.entrySet()) {
+                long total = 0;
+                for (AtomicLong test : duration.getValue().values()) {
+                    total += test.get();
+                }
+                measured.put(duration.getKey(), total / Math.max(1, duration.getValue().size()));
+            }
+            DurationScheduler.record(measured);
+            ShardResults.main(new String[]{directory.getPath()});
+            log.info("Results: {}", totals);
+            return exit != 0 || totals.containsKey("FAIL") ? 1 : 0;
+        }
+    }
+
+    /**
+     * Command line of a worker: same java, JVM options and class path, forwarded system properties, a JMX port of its own
+     */
+    private ProcessBuilder worker(int index, int port, String[] suites, File directory) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        Properties properties = System.getProperties();
+        for (String name : properties.stringPropertyNames()) {
+            if (!isLocal(name)) {
+                command.add("-D" + name + "=" + properties.getProperty(name));
+            }
+        }
+        command.add("-D" + WorkerClient.COORDINATOR + "=" + port);
+        command.add("-D" + WorkerClient.WORKER + "=" + index);
+        command.add("-D" + WorkerClient.WORKERS + "=" + workers);
+        command.add("-Dseletest.jmx.rmi.port=" + (Integer.getInteger("seletest.jmx.rmi.port", 9999) + 1 + index));
+        command.add("org.testng.TestNG");
+        command.add("-d");
+        command.add(new File(directory, "worker-" + index).getPath());
+        if (!declaresScheduler(suites)) {
+            command.add("-listener");
+            command.add(DurationScheduler.class.getName());
+        }
+        command.addAll(Arrays.asList(suites));
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(new File(directory, "worker-" + index + ".log"));
+    }
+
+    /**
+     * Checks if the suites register the DurationScheduler themselves, a second instance would claim and report twice
+     * @param suites String[] suite files
+     * @return true if any suite (or child suite) declares the listener
+     */
+    private static boolean declaresScheduler(String[] suites) {
+        boolean declared = false;
+        boolean missing = false;
+        for (String suite : suites) {
+            try {
+                for (XmlSuite xml : new Parser(suite).parseToList()) {
+                    if (xml.getListeners().contains(DurationScheduler.class.getName())) {
+                        declared = true;
+                    } else if (xml.getParentSuite() == null) {
+                        missing = true;
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Cannot read listeners of suite {}: {}", suite, e.getMessage());
+                missing = true;
+            }
+        }
+        if (declared && missing) {
+            log.warn("DurationScheduler is declared by some of the suites only, suites without it run all their methods on every worker");
+        }
+        return declared;
+    }
+
+    /**
+     * JVM options of the workers: the options of the coordinator JVM (Spring agent for load time weaving, -noverify,
+     * memory settings) except system properties, which are forwarded separately, and debugger or JMX agents
+     * that would bind the same port, followed by the options of worker.jvmArgs
+     */
+    private static List<String> jvmArgs() {
+        List<String> args = new ArrayList<>();
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!arg.startsWith("-D") && !arg.startsWith("-agentlib:jdwp") && !arg.startsWith("-Xrunjdwp")) {
+                args.add(arg);
+            }
+        }
+        String extra = System.getProperty("worker.jvmArgs", "").trim();
+        if (!extra.isEmpty()) {
+            args.addAll(Arrays.asList(extra.split("\\s+")));
+        }
+        return args;
+    }
+
+    private static boolean isLocal(String name) {
+        for (String prefix : LOCAL) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serves the requests of one worker
+     */
+    private void serve(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            int worker = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split("\t");
+                switch (fields[0]) {
+                    case "HELLO":
+                        worker = Integer.parseInt(fields[1]);
+                        break;
+                    case "CLAIM":
+                        out.println(join(claim(fields[1], Arrays.asList(fields).subList(2, fields.length), worker)));
+                        break;
+                    case "RESULT":
+                        totals.putIfAbsent(fields[1], new AtomicInteger());
+                        totals.get(fields[1]).incrementAndGet();
+                        if (!"SKIP".equals(fields[1])) {
+                            String method = fields[2].substring(0, fields[2].lastIndexOf('@'));
+                            String test = fields.length > 4 ? fields[4] : "";
+                            durations.putIfAbsent(method, new ConcurrentHashMap<String, AtomicLong>());
+                            durations.get(method).putIfAbsent(test, new AtomicLong());
+                            durations.get(method).get(test).addAndGet(Long.parseLong(fields[3]));
+                        }
+                        log.debug("[worker {}] {} {} ({}ms)", worker, fields[1], fields[2], fields[3]);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Worker connection lost: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Methods of a test owned by a worker. The first claim of a test packs its methods longest-first on the
+     * workers, keys missing from that partition go to a worker by hash.
+     */
+    synchronized List<String> claim(String test, List<String> keys, int worker) {
+        Map<String, Integer> partition = partitions.get(test);
+        if (partition == null) {
+            partition = pack(keys);
+            partitions.put(test, partition);
+        }
+        List<String> owned = new ArrayList<>();
+        for (String key : keys) {
+            Integer owner = partition.get(key);
+            if ((owner != null ? owner : Math.abs(key.hashCode() % workers)) == worker) {
+                owned.add(key);
+            }
+        }
+        return owned;
+    }
+
+    private Map<String, Integer> pack(List<String> keys) {
+        final Map<String, Long> history = DurationScheduler.history();
+        final long unknown = history.isEmpty() ? 1 : DurationScheduler.median(history);
+        List<String> ordered = new ArrayList<>(keys);
+        Collections.sort(ordered, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return Long.compare(duration(b, history, unknown), duration(a, history, unknown));
+            }
+        });
+        long[] load = new long[workers];
+        Map<String, Integer> partition = new TreeMap<>();
+        for (String key : ordered) {
+            int lightest = 0;
+            for (int i = 1; i < workers; i++) {
+                if (load[i] < load[lightest]) {
+                    lightest = i;
+                }
+            }
+            load[lightest] += duration(key, history, unknown);
+            partition.put(key, lightest);
+        }
+        return partition;
+    }
+
+    /**
+     * Duration of a key class#method@occurrence
+     */
+    private static long duration(String key, Map<String, Long> history, long unknown) {
+        Long duration = history.get(key.substring(0, key.lastIndexOf('@')));
+        return duration != null ? duration : unknown;
+    }
+
+    private static String join(List<String> keys) {
+        StringBuilder joined = new StringBuilder();
+        for (String key : keys) {
+            if (joined.length() > 0) {
+                joined.append('\t');
+            }
+            joined.append(key);
+        }
+        return joined.toString();
+    }
+}
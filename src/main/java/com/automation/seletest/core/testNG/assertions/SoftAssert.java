@@ -26,6 +26,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 package com.automation.seletest.core.testNG.assertions;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,8 +50,8 @@ public class SoftAssert extends Assertion {
     @Autowired
     LogUtils log;
 
-    /** LinkedHashMap to preserve the order*/
-    private static final Map<AssertionError, IAssert> m_errors = Maps.newLinkedHashMap();
+    /** LinkedHashMap to preserve the order, per session so that the errors of one test can be discarded*/
+    private final Map<AssertionError, IAssert> m_errors = Collections.synchronizedMap(Maps.<AssertionError, IAssert>newLinkedHashMap());
 
     @Override
     public void executeAssert(IAssert a) {
@@ -68,6 +69,19 @@ public class SoftAssert extends Assertion {
      * Assert failures after test execution
      */
     public void assertAll() {
+        synchronized (m_errors) {
+            failOnErrors();
+        }
+    }
+
+    /**
+     * Discards the failures recorded so far, e.g. the failures of an attempt that is retried
+     */
+    public void clear() {
+        m_errors.clear();
+    }
+
+    private void failOnErrors() {
         if (! m_errors.isEmpty()) {
             StringBuilder sb = new StringBuilder("The following asserts failed:\n");
             boolean first = true;